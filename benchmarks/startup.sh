@@ -0,0 +1,107 @@
+#!/usr/bin/env bash
+# 기동 시간 비교: plain(java -jar) / AOT+CDS(기본 Dockerfile) / native(Dockerfile.native)
+# 운영과 같은 deploy 프로파일로 로컬 MySQL/Redis/RabbitMQ 컨테이너에 붙어 완전히 기동할 때까지를 잰다.
+# 파드 limit 과 같은 0.4 CPU/512MB 로 실행하고, docker run 부터 rabbit/binders health 가 모두 UP 이 될 때까지(브로커 인증, 바인딩 완료)의 중앙값을 쓴다.
+#   ./benchmarks/startup.sh [반복 횟수]   (SKIP_NATIVE=1 이면 native 제외)
+set -euo pipefail
+
+RUNS=${1:-5}
+CPUS=${CPUS:-0.4}
+NETWORK=delivery-startup-bench
+cd "$(dirname "$0")/.."
+
+docker build -q --target plain -t delivery-service:plain . >/dev/null
+docker build -q -t delivery-service:cds . >/dev/null
+if [[ -z "${SKIP_NATIVE:-}" ]]; then
+  docker build -q -f Dockerfile.native -t delivery-service:native . >/dev/null
+fi
+
+cleanup() {
+  docker rm -f bench-mysql bench-redis bench-rabbitmq >/dev/null 2>&1 || true
+  docker network rm "$NETWORK" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+cleanup
+
+docker network create "$NETWORK" >/dev/null
+docker run -d --name bench-mysql --network "$NETWORK" \
+  -e MYSQL_ROOT_PASSWORD=bench -e MYSQL_DATABASE=delivery mysql:8.0 >/dev/null
+docker run -d --name bench-redis --network "$NETWORK" redis:7 >/dev/null
+# guest 계정은 loopback 에서만 접속되므로 다른 컨테이너에서 붙을 계정을 따로 만든다
+docker run -d --name bench-rabbitmq --network "$NETWORK" \
+  -e RABBITMQ_DEFAULT_USER=bench -e RABBITMQ_DEFAULT_PASS=bench rabbitmq:3 >/dev/null
+
+until docker exec bench-mysql mysqladmin ping -h 127.0.0.1 -pbench --silent >/dev/null 2>&1; do sleep 1; done
+until docker exec bench-mysql mysql -h 127.0.0.1 -pbench -e 'SELECT 1' delivery >/dev/null 2>&1; do sleep 1; done
+until docker exec bench-rabbitmq rabbitmq-diagnostics -q check_port_connectivity >/dev/null 2>&1; do sleep 1; done
+
+APP_ENV=(
+  -e SPRING_PROFILES_ACTIVE=deploy
+  -e SPRING_R2DBC_URL=r2dbc:mysql://bench-mysql:3306/delivery
+  -e SPRING_FLYWAY_URL=jdbc:mysql://bench-mysql:3306/delivery
+  -e SPRING_R2DBC_USER=root
+  -e SPRING_R2DBC_PASSWORD=bench
+  -e SPRING_RABBITMQ_HOST=bench-rabbitmq
+  -e SPRING_RABBITMQ_PORT=5672
+  -e SPRING_RABBITMQ_USER=bench
+  -e SPRING_RABBITMQ_PASSWORD=bench
+  -e REDIS_URL=bench-redis
+  -e REDIS_PORT=6379
+  -e REDIS_PASSWORD=
+  -e REDIS_USER=
+)
+
+# rabbit(브로커 연결)과 binders(바인딩) health 가 모두 UP 이 될 때까지 기다렸다가 docker run 부터 걸린 시간(ms)을 출력
+healthy() {
+  local port=$1 component
+  for component in rabbit binders; do
+    curl -sf "http://127.0.0.1:${port}/actuator/health/${component}" | grep -q '"status":"UP"' || return 1
+  done
+}
+
+start_once() {
+  local image=$1 container port begin end
+  begin=$(date +%s%N)
+  container=$(docker run -d --network "$NETWORK" --cpus="$CPUS" -m 512m -p 127.0.0.1::9005 "${APP_ENV[@]}" "$image")
+  port=$(docker port "$container" 9005/tcp | head -1 | awk -F: '{print $NF}')
+  for _ in $(seq 1200); do
+    if healthy "$port"; then
+      end=$(date +%s%N)
+      docker rm -f "$container" >/dev/null
+      echo $(( (end - begin) / 1000000 ))
+      return
+    fi
+    if [[ "$(docker inspect -f '{{.State.Running}}' "$container")" != "true" ]]; then
+      docker logs "$container" >&2
+      docker rm -f "$container" >/dev/null
+      echo "기동 실패: $image" >&2
+      exit 1
+    fi
+    sleep 0.1
+  done
+  docker logs "$container" >&2
+  docker rm -f "$container" >/dev/null
+  echo "기동 시간 초과(health 가 UP 이 아님): $image" >&2
+  exit 1
+}
+
+measure() {
+  local name=$1 image=$2
+  local times=()
+  for _ in $(seq "$RUNS"); do
+    times+=("$(start_once "$image")")
+  done
+  local median
+  median=$(printf '%s\n' "${times[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')
+  printf '%-8s median=%6sms runs=[%s]\n' "$name" "$median" "${times[*]}"
+}
+
+# 첫 기동은 Flyway 마이그레이션이 포함되므로 측정에서 뺀다
+start_once delivery-service:plain >/dev/null
+
+echo "cpus=$CPUS runs=$RUNS profile=deploy"
+measure plain delivery-service:plain
+measure cds delivery-service:cds
+if [[ -z "${SKIP_NATIVE:-}" ]]; then
+  measure native delivery-service:native
+fi
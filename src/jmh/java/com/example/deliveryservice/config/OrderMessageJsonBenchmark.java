@@ -0,0 +1,68 @@
+package com.example.deliveryservice.config;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.type.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// RabbitConfig 의 Jackson2JsonMessageConverter(JavaTimeModule) 로 OrderCreatedMessage 인코딩/디코딩
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMessageJsonBenchmark {
+
+    private Jackson2JsonMessageConverter converter;
+    private OrderCreatedMessage message;
+    private Message encoded;
+
+    @Setup
+    public void setUp() {
+        // 스프링 부트가 만드는 ObjectMapper 와 같은 모듈 구성
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        converter = new RabbitConfig(null).rabbitMessageConverter(mapper);
+
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setTrustedPackages("com.example.deliveryservice.event");
+        converter.setJavaTypeMapper(typeMapper);
+
+        message = OrderCreatedMessage.builder()
+                .merchantUid("merchant-20261018-0001")
+                .status(OrderStatus.ORDER_DELIVERING)
+                .riderUserUid(7)
+                .addressStart("서울특별시 강남구 테헤란로 1")
+                .addressDestination("서울특별시 서초구 서초대로 2")
+                .deliveryAcceptTime(LocalDateTime.of(2026, 10, 18, 18, 30))
+                .build();
+        encoded = converter.toMessage(message, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encode() {
+        return converter.toMessage(message, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decode() {
+        return converter.fromMessage(encoded);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.type.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// 여러 바인더 스레드가 동시에 offer 할 때 OrderStreamListener 의 배치 파이프라인 처리량
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BatchPipelineBenchmark {
+
+    @Param({"5", "100"})
+    public int batchSize;
+
+    private BatchPipeline<OrderCreatedMessage> pipeline;
+    private final LongAdder flushed = new LongAdder();
+    private OrderCreatedMessage message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        message = OrderCreatedMessage.builder()
+                .merchantUid("merchant-20261018-0001")
+                .status(OrderStatus.ORDER_COOKING)
+                .build();
+        // DB 대신 바로 끝나는 핸들러 → 파이프라인 자체 비용만 측정
+        pipeline = new BatchPipeline<>("bench", batchSize, Duration.ofMillis(200), 4, 1024, Duration.ofSeconds(5),
+                new SimpleMeterRegistry(), batch -> {
+                    flushed.add(batch.size());
+                    return Mono.empty();
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.close(Duration.ofSeconds(5));
+    }
+
+    @Benchmark
+    public void offer() {
+        pipeline.offer(message);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.deliveryservice.service;
+
+import com.example.deliveryservice.domain.Delivery;
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.type.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// DeliveryService 의 메시지 ↔ 엔티티 매핑
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeliveryMappingBenchmark {
+
+    private OrderCreatedMessage message;
+    private Delivery delivery;
+
+    @Setup
+    public void setUp() {
+        message = OrderCreatedMessage.builder()
+                .merchantUid("merchant-20261018-0001")
+                .status(OrderStatus.ORDER_COOKING)
+                .addressStart("서울특별시 강남구 테헤란로 1")
+                .addressDestination("서울특별시 서초구 서초대로 2")
+                .build();
+        delivery = Delivery.builder()
+                .uid(1)
+                .merchantUid("merchant-20261018-0001")
+                .status(OrderStatus.ORDER_DELIVERING)
+                .riderUserUid(7)
+                .addressStart("서울특별시 강남구 테헤란로 1")
+                .addressDestination("서울특별시 서초구 서초대로 2")
+                .deliveryAcceptTime(LocalDateTime.of(2026, 10, 18, 18, 30))
+                .version(1)
+                .build();
+    }
+
+    @Benchmark
+    public Delivery convertToEntity() {
+        return DeliveryService.convertToEntity(message);
+    }
+
+    @Benchmark
+    public OrderCreatedMessage convertToOrderCreatedMessage() {
+        return DeliveryService.convertToOrderCreatedMessage(delivery);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.deliveryservice.loadtest;
+
+import com.example.deliveryservice.DeliveryServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 오프라인 부하 측정: ./gradlew loadTest -Dload.messages=20000 -Dload.rate=2000
+ * order-cooking 수신 → OrderStreamListener → DeliveryService.saveOrders → DB, 그리고 /deliveries/start, /complete 왕복을 측정한다.
+ */
+public class IngestLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DeliveryServiceApplication.class, LoadTestStandIns.class)
+                .profiles("loadtest")
+                .run(args);
+        try {
+            new LoadRunner(context, profile).run();
+        } finally {
+            context.close();
+        }
+    }
+}
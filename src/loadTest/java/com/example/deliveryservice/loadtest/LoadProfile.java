@@ -0,0 +1,25 @@
+package com.example.deliveryservice.loadtest;
+
+import java.time.Duration;
+
+/**
+ * 부하 설정. -Dload.xxx 시스템 프로퍼티로 바꾼다.
+ */
+public record LoadProfile(
+        int messages,          // order-cooking 으로 보낼 메시지 수
+        int messageRate,       // 초당 메시지 수
+        int senders,           // 메시지를 보내는 스레드 수
+        int httpRequests,      // start → complete 왕복 수
+        int httpConcurrency,   // 동시에 진행할 HTTP 요청 수
+        Duration timeout       // 단계별 최대 대기 시간
+) {
+    public static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                Integer.getInteger("load.messages", 20_000),
+                Integer.getInteger("load.rate", 2_000),
+                Integer.getInteger("load.senders", 4),
+                Integer.getInteger("load.http-requests", 2_000),
+                Integer.getInteger("load.http-concurrency", 32),
+                Duration.ofSeconds(Integer.getInteger("load.timeout-seconds", 120)));
+    }
+}
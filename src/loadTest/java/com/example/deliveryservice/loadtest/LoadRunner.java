@@ -0,0 +1,191 @@
+package com.example.deliveryservice.loadtest;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.service.CookingOrderSnapshot;
+import com.example.deliveryservice.type.CookingOrderEventType;
+import com.example.deliveryservice.type.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadRunner {
+
+    private final LoadProfile profile;
+    private final ObjectMapper objectMapper;
+    private final InputDestination input;
+    private final CookingOrderSnapshot cookingOrderSnapshot;
+    private final WebClient webClient;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final AtomicLong maxHeapUsed = new AtomicLong();
+
+    public LoadRunner(ConfigurableApplicationContext context, LoadProfile profile) {
+        this.profile = profile;
+        this.objectMapper = context.getBean(ObjectMapper.class);
+        this.input = context.getBean(InputDestination.class);
+        this.cookingOrderSnapshot = context.getBean(CookingOrderSnapshot.class);
+        String port = context.getEnvironment().getProperty("local.server.port");
+        this.webClient = context.getBean(WebClient.Builder.class)
+                .baseUrl("http://localhost:" + port)
+                .build();
+    }
+
+    public void run() throws InterruptedException {
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+        heapSampler.scheduleAtFixedRate(this::sampleHeap, 0, 100, TimeUnit.MILLISECONDS);
+        try {
+            System.out.println("load profile: " + profile);
+            List<String> ingested = runIngest();
+            runHttp(ingested);
+        } finally {
+            heapSampler.shutdownNow();
+        }
+        System.out.printf("heap      max-used=%.1fMB max=%.1fMB%n",
+                maxHeapUsed.get() / 1_048_576.0, memory.getHeapMemoryUsage().getMax() / 1_048_576.0);
+        System.out.println("published status-change events: " + LoadTestStandIns.PUBLISHED.sum());
+    }
+
+    // 메시지 발행 시각부터 저장 후 조리중 목록에 반영될 때까지
+    private List<String> runIngest() throws InterruptedException {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        Map<String, Long> sentAt = new ConcurrentHashMap<>();
+        List<String> ingested = new ArrayList<>();
+        LatencyRecorder recorder = new LatencyRecorder("ingest");
+        CountDownLatch done = new CountDownLatch(profile.messages());
+
+        Disposable watcher = cookingOrderSnapshot.stream()
+                .filter(event -> event.getType() == CookingOrderEventType.ADDED)
+                .subscribe(event -> {
+                    Long start = sentAt.remove(event.getMerchantUid());
+                    if (start != null) {
+                        recorder.record(System.nanoTime() - start);
+                        synchronized (ingested) {
+                            ingested.add(event.getMerchantUid());
+                        }
+                        done.countDown();
+                    }
+                });
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.messageRate();
+        long begin = System.nanoTime();
+        ExecutorService senders = Executors.newFixedThreadPool(profile.senders());
+        for (int sender = 0; sender < profile.senders(); sender++) {
+            int offset = sender;
+            senders.submit(() -> {
+                for (int i = offset; i < profile.messages(); i += profile.senders()) {
+                    long due = begin + i * intervalNanos;
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    String merchantUid = "load-" + runId + "-" + i;
+                    sentAt.put(merchantUid, System.nanoTime());
+                    input.send(MessageBuilder.withPayload(toJson(cookingMessage(merchantUid)))
+                            .setHeader(MessageHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .build(), "order-cooking");
+                }
+            });
+        }
+        senders.shutdown();
+
+        boolean completed = done.await(profile.timeout().toSeconds(), TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - begin;
+        watcher.dispose();
+
+        System.out.println(recorder.summary(elapsed) + (completed ? "" : " (timeout, missing=" + done.getCount() + ")"));
+        return ingested;
+    }
+
+    // 조리중 주문을 골라 start → complete 왕복
+    private void runHttp(List<String> merchantUids) {
+        List<String> targets = merchantUids.subList(0, Math.min(profile.httpRequests(), merchantUids.size()));
+        LatencyRecorder start = new LatencyRecorder("start");
+        LatencyRecorder complete = new LatencyRecorder("complete");
+        LongAdder failures = new LongAdder();
+
+        long begin = System.nanoTime();
+        Flux.fromIterable(targets)
+                .flatMap(merchantUid -> post("/deliveries/start", Map.of(
+                                "merchantUid", merchantUid,
+                                "riderUserUid", 1,
+                                "deliveryAcceptTime", LocalDateTime.now().toString()), start, failures)
+                        .then(post("/deliveries/complete", Map.of(
+                                "merchantUid", merchantUid,
+                                "deliveredTime", LocalDateTime.now().toString()), complete, failures)),
+                        profile.httpConcurrency())
+                .blockLast(profile.timeout());
+        long elapsed = System.nanoTime() - begin;
+
+        System.out.println(start.summary(elapsed));
+        System.out.println(complete.summary(elapsed));
+        System.out.println("http      failures=" + failures.sum());
+    }
+
+    private Mono<Void> post(String path, Map<String, Object> body, LatencyRecorder recorder, LongAdder failures) {
+        return Mono.defer(() -> {
+            long begin = System.nanoTime();
+            return webClient.post()
+                    .uri(path)
+                    .bodyValue(body)
+                    .retrieve()
+                    .bodyToMono(Map.class)
+                    .doOnNext(response -> {
+                        recorder.record(System.nanoTime() - begin);
+                        if (!Boolean.TRUE.equals(response.get("success"))) {
+                            failures.increment();
+                        }
+                    })
+                    .doOnError(e -> failures.increment())
+                    .onErrorResume(e -> Mono.empty())
+                    .then();
+        });
+    }
+
+    private OrderCreatedMessage cookingMessage(String merchantUid) {
+        return OrderCreatedMessage.builder()
+                .merchantUid(merchantUid)
+                .status(OrderStatus.ORDER_COOKING)
+                .addressStart("서울특별시 강남구 테헤란로 1")
+                .addressDestination("서울특별시 서초구 서초대로 2")
+                .build();
+    }
+
+    private byte[] toJson(OrderCreatedMessage message) {
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void sampleHeap() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        maxHeapUsed.accumulateAndGet(used, Math::max);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.deliveryservice.loadtest;
+
+import com.example.deliveryservice.rabbit.DeadLetterPublisher;
+import com.example.deliveryservice.rabbit.OutboxRelay;
+import com.example.deliveryservice.rabbit.StatusChangePublisher;
+import com.example.deliveryservice.service.CookingOrderSnapshot;
+import com.example.deliveryservice.service.DeliveryService;
+import org.mockito.Mockito;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.sql.init.AbstractScriptDatabaseInitializer;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * 외부 인프라 대체 빈. RabbitMQ 바인더는 test binder, 브로커 발행(status-change, DLQ)과 Redis 는 mock 으로 바꾼다.
+ */
+@Configuration
+@Import(TestChannelBinderConfiguration.class)
+public class LoadTestStandIns {
+
+    public static final LongAdder PUBLISHED = new LongAdder();
+
+    @Bean
+    @Primary
+    public RedissonClient fakeRedissonClient() {
+        return Mockito.mock(RedissonClient.class);
+    }
+
+    // 브로커 confirm 대신 바로 완료
+    @Bean
+    @Primary
+    public StatusChangePublisher fakeStatusChangePublisher() {
+        StatusChangePublisher publisher = Mockito.mock(StatusChangePublisher.class);
+        Mockito.when(publisher.publishAll(any())).thenAnswer(invocation -> {
+            PUBLISHED.add(((List<?>) invocation.getArgument(0)).size());
+            return Mono.empty();
+        });
+        Mockito.when(publisher.publish(any())).thenAnswer(invocation -> {
+            PUBLISHED.increment();
+            return Mono.empty();
+        });
+        return publisher;
+    }
+
+    @Bean
+    @Primary
+    public DeadLetterPublisher fakeDeadLetterPublisher() {
+        DeadLetterPublisher publisher = Mockito.mock(DeadLetterPublisher.class);
+        Mockito.when(publisher.publishAll(any(), any(), any(), Mockito.anyBoolean())).thenReturn(Mono.empty());
+        return publisher;
+    }
+
+    // 지연 초기화 중에도 스케줄 작업과 스키마 초기화는 바로 올라와야 한다
+    @Bean
+    public static LazyInitializationExcludeFilter eagerLoadTestBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                AbstractScriptDatabaseInitializer.class,
+                DeliveryService.class,
+                CookingOrderSnapshot.class,
+                OutboxRelay.class);
+    }
+}
@@ -0,0 +1,29 @@
+-- db/migration 과 같은 구조를 H2 문법으로 작성
+CREATE TABLE IF NOT EXISTS delivery (
+    uid                  INT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    rider_user_uid       INT          NULL,
+    rider_social_uid     INT          NULL,
+    merchant_uid         VARCHAR(100) NOT NULL,
+    status               VARCHAR(30)  NOT NULL,
+    address_start        VARCHAR(255) NULL,
+    address_destination  VARCHAR(255) NULL,
+    address_start_lat       DOUBLE NULL,
+    address_start_lan       DOUBLE NULL,
+    address_destination_lat DOUBLE NULL,
+    address_destination_lan DOUBLE NULL,
+    delivery_accept_time TIMESTAMP(6) NULL,
+    delivered_time       TIMESTAMP(6) NULL,
+    created_at           TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    version              INT          NOT NULL DEFAULT 0,
+    CONSTRAINT uk_delivery_merchant_uid UNIQUE (merchant_uid)
+);
+CREATE INDEX IF NOT EXISTS idx_delivery_status_uid ON delivery (status, uid);
+CREATE INDEX IF NOT EXISTS idx_delivery_rider_user_status ON delivery (rider_user_uid, status, uid);
+CREATE INDEX IF NOT EXISTS idx_delivery_rider_social_status ON delivery (rider_social_uid, status, uid);
+
+CREATE TABLE IF NOT EXISTS delivery_outbox (
+    id           BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    merchant_uid VARCHAR(100) NOT NULL,
+    payload      TEXT         NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL
+);
@@ -1,9 +1,12 @@
 package com.example.deliveryservice;
 
+import com.example.deliveryservice.config.DeliveryRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(DeliveryRuntimeHints.class)
 public class DeliveryServiceApplication {
 
     public static void main(String[] args) {
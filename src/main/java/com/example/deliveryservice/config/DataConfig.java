@@ -1,9 +1,25 @@
 package com.example.deliveryservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @Configuration
 @EnableTransactionManagement // 트랜잭션 관리 활성화
 public class DataConfig {
+
+    @Value("${delivery.flyway.migrate-on-start:true}")
+    private boolean migrateOnStart;
+
+    // spring.flyway.enabled 는 AOT 빌드 때 고정되므로 실행 시 끄려면 이 값을 쓴다 (CDS 학습 실행은 DB 없이 빈만 만든다)
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy() {
+        return flyway -> {
+            if (migrateOnStart) {
+                flyway.migrate();
+            }
+        };
+    }
 }
@@ -0,0 +1,52 @@
+package com.example.deliveryservice.config;
+
+import com.example.deliveryservice.domain.Delivery;
+import com.example.deliveryservice.domain.DeliveryOutbox;
+import com.example.deliveryservice.domain.DeliverySlaCandidate;
+import com.example.deliveryservice.domain.DeliverySummary;
+import com.example.deliveryservice.dto.CookingOrderEventDTO;
+import com.example.deliveryservice.dto.DeliveryBatchResponseDTO;
+import com.example.deliveryservice.dto.DeliveryBatchResultDTO;
+import com.example.deliveryservice.dto.DeliveryCompleteRequestDTO;
+import com.example.deliveryservice.dto.DeliveryStartRequestDTO;
+import com.example.deliveryservice.dto.OrderPageDTO;
+import com.example.deliveryservice.dto.RabbitResponseDTO;
+import com.example.deliveryservice.event.DeliveryAddressMessage;
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.event.OrderSlaBreachedMessage;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * AOT/native 이미지용 힌트. Jackson 과 Spring Data 가 리플렉션으로 다루는 타입과 Flyway 스크립트를 등록한다.
+ */
+public class DeliveryRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // 엔티티/메시지/DTO - 필드, 생성자, 빌더까지 직렬화 대상
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                Delivery.class,
+                DeliverySummary.class,
+                DeliverySlaCandidate.class,
+                DeliveryOutbox.class,
+                OrderCreatedMessage.class,
+                OrderSlaBreachedMessage.class,
+                DeliveryAddressMessage.class,
+                CookingOrderEventDTO.class,
+                OrderPageDTO.class,
+                RabbitResponseDTO.class,
+                DeliveryStartRequestDTO.class,
+                DeliveryCompleteRequestDTO.class,
+                DeliveryBatchResponseDTO.class,
+                DeliveryBatchResultDTO.class);
+
+        // RabbitConfig 에서 등록하는 모듈, ObjectMapper.findAndRegisterModules 로도 생성된다
+        hints.reflection().registerType(JavaTimeModule.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        hints.resources().registerPattern("db/migration/*.sql");
+    }
+}
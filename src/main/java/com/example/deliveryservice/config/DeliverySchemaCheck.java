@@ -0,0 +1,118 @@
+package com.example.deliveryservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Flyway V2/V4/V5/V6 는 큰 테이블에 컬럼/인덱스를 만들지 않으므로(sql/delivery-indexes-online.sql 로 따로 적용),
+ * 메시지 수신을 시작하기 전에 delivery 스키마를 확인한다.
+ * V4/V5 컬럼이 없으면 저장 쿼리가 모두 실패하고, uk_delivery_merchant_uid 가 없으면 재전송된 주문이 중복 저장되므로
+ * 기동을 실패시킨다. 나머지 인덱스는 느려질 뿐이라 에러 로그만 남긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeliverySchemaCheck implements SmartLifecycle {
+
+    static final String MERCHANT_UID_UNIQUE = "uk_delivery_merchant_uid";
+
+    static final List<String> REQUIRED_INDEXES = List.of(
+            MERCHANT_UID_UNIQUE,
+            "idx_delivery_status_uid",
+            "idx_delivery_rider_user_status",
+            "idx_delivery_rider_social_status");
+
+    // V4(좌표), V5(created_at) - bulkUpsert 와 SLA 쿼리가 쓴다
+    static final List<String> REQUIRED_COLUMNS = List.of(
+            "address_start_lat",
+            "address_start_lan",
+            "address_destination_lat",
+            "address_destination_lan",
+            "created_at");
+
+    // 입력 바인딩(Spring Cloud Stream, phase Integer.MAX_VALUE - 1000)보다 먼저 시작해 키 없이 소비하지 않게 한다
+    static final int PHASE = 0;
+
+    private final DatabaseClient databaseClient;
+
+    @Value("${delivery.schema-check.timeout:10s}")
+    private Duration timeout;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        Set<String> indexes;
+        Set<String> columns;
+        try {
+            indexes = names("""
+                    SELECT DISTINCT index_name AS name FROM information_schema.statistics
+                    WHERE table_schema = DATABASE() AND table_name = 'delivery'
+                    """);
+            columns = names("""
+                    SELECT column_name AS name FROM information_schema.columns
+                    WHERE table_schema = DATABASE() AND table_name = 'delivery'
+                    """);
+        } catch (InvalidDataAccessResourceUsageException e) {
+            // MySQL 이 아닌 대체 DB(H2 등)에서는 확인하지 않는다 (DB 연결 실패는 그대로 기동 실패)
+            log.debug("delivery 스키마 확인 생략: {}", e.getMessage());
+            running = true;
+            return;
+        }
+        verify(indexes, columns);
+        running = true;
+    }
+
+    private Set<String> names(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get("name", String.class))
+                .all()
+                .collect(Collectors.toSet())
+                .block(timeout);
+    }
+
+    static void verify(Set<String> indexes, Set<String> columns) {
+        List<String> missingColumns = REQUIRED_COLUMNS.stream()
+                .filter(column -> !columns.contains(column))
+                .toList();
+        if (!missingColumns.isEmpty()) {
+            throw new IllegalStateException("delivery 테이블에 컬럼이 없습니다: " + missingColumns
+                    + " → sql/delivery-indexes-online.sql 을 실행한 뒤 기동하세요");
+        }
+        List<String> missing = REQUIRED_INDEXES.stream()
+                .filter(index -> !indexes.contains(index))
+                .toList();
+        if (missing.contains(MERCHANT_UID_UNIQUE)) {
+            throw new IllegalStateException("delivery 테이블에 " + MERCHANT_UID_UNIQUE
+                    + " 가 없습니다 → sql/delivery-indexes-online.sql 을 실행한 뒤 기동하세요");
+        }
+        if (!missing.isEmpty()) {
+            log.error("delivery 테이블에 인덱스가 없습니다: {} → sql/delivery-indexes-online.sql 을 실행하세요", missing);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -20,6 +20,16 @@ import org.springframework.context.annotation.Configuration;
 @RequiredArgsConstructor
 public class RabbitConfig {
 
+    // 재시도와 분할 후에도 처리하지 못한 주문 메시지를 모아 두는 곳 (수동 확인/재처리용)
+    public static final String DEAD_LETTER_EXCHANGE = "delivery.dlx";
+    public static final String DEAD_LETTER_QUEUE = "delivery-ingest.dlq";
+    public static final String DEAD_LETTER_ROUTING_KEY = "delivery.ingest.failed";
+
+    // 조리중/배달중 상태로 너무 오래 머문 주문 알림
+    public static final String SLA_ALERT_EXCHANGE = "delivery.sla";
+    public static final String SLA_ALERT_QUEUE = "delivery-sla.alert";
+    public static final String SLA_ALERT_ROUTING_KEY = "delivery.sla.breached";
+
     private final ConnectionFactory connectionFactory;
 
     // 조리중 큐
@@ -38,6 +48,18 @@ public class RabbitConfig {
     @Bean
     public Queue orderRollbackQueue() { return new Queue("order-rollback.order-service", true);}
 
+    // 처리 실패 큐
+    @Bean
+    public Queue deadLetterQueue() {
+        return new Queue(DEAD_LETTER_QUEUE, true);
+    }
+
+    // SLA 초과 알림 큐
+    @Bean
+    public Queue slaAlertQueue() {
+        return new Queue(SLA_ALERT_QUEUE, true);
+    }
+
     @Bean
     public Jackson2JsonMessageConverter rabbitMessageConverter(ObjectMapper mapper) {
         mapper.registerModule(new JavaTimeModule());
@@ -56,6 +78,16 @@ public class RabbitConfig {
         return new DirectExchange("order-rollback", true, false);
     }
 
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(DEAD_LETTER_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public DirectExchange slaAlertExchange() {
+        return new DirectExchange(SLA_ALERT_EXCHANGE, true, false);
+    }
+
     // 큐 바인딩
     @Bean
     public Binding cookingBinding() {
@@ -74,15 +106,32 @@ public class RabbitConfig {
                 .with("order.rollback"); // 메시지 routing key 와 정확히 일치
     }
 
+    // 처리 실패 바인딩
+    @Bean
+    public Binding deadLetterBinding() {
+        return BindingBuilder
+                .bind(deadLetterQueue())
+                .to(deadLetterExchange())
+                .with(DEAD_LETTER_ROUTING_KEY);
+    }
+
+    // SLA 초과 알림 바인딩
+    @Bean
+    public Binding slaAlertBinding() {
+        return BindingBuilder
+                .bind(slaAlertQueue())
+                .to(slaAlertExchange())
+                .with(SLA_ALERT_ROUTING_KEY);
+    }
+
     // RabbitAdmin으로 큐 선언 보장
+    // 빈 생성 시점에는 브로커에 접속하지 않는다. afterPropertiesSet 에서 연결 팩토리에 리스너를 걸어두고,
+    // 연결이 열릴 때마다(첫 연결과 재연결) 위의 Queue/Exchange/Binding 빈을 모두 선언한다.
+    // 첫 연결은 바인딩이 시작되거나 publisher 가 처음 보낼 때 열리므로 그보다 먼저 선언되고,
+    // 브로커 없이도 컨텍스트가 뜨므로 AOT 처리와 CDS 학습 실행이 가능하다
     @Bean
     public RabbitAdmin rabbitAdmin() {
-        RabbitAdmin rabbitAdmin = new RabbitAdmin(connectionFactory);
-        // 주문 큐 등록
-        rabbitAdmin.declareQueue(orderCookingQueue());
-        rabbitAdmin.declareQueue(statusChangeQueue());
-        rabbitAdmin.declareQueue(orderRollbackQueue());
-        return rabbitAdmin;
+        return new RabbitAdmin(connectionFactory);
     }
 
 }
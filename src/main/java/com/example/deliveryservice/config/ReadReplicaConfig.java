@@ -0,0 +1,66 @@
+package com.example.deliveryservice.config;
+
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// 라우팅 ConnectionFactory 는 항상 만들고 replica 사용 여부는 실행 시 delivery.read-replica.enabled 로 정한다.
+// @ConditionalOnProperty 는 AOT 빌드(processAot) 때 평가되어 이미지에 고정되므로 쓰지 않는다
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReadReplicaConfig {
+
+    @Value("${delivery.read-replica.enabled:false}")
+    private boolean enabled;
+
+    @Value("${delivery.read-replica.url:}")
+    private String url;
+
+    @Value("${delivery.read-replica.username:${spring.r2dbc.username}}")
+    private String username;
+
+    @Value("${delivery.read-replica.password:${spring.r2dbc.password}}")
+    private String password;
+
+    @Value("${delivery.read-replica.pool.initial-size:5}")
+    private int initialSize;
+
+    @Value("${delivery.read-replica.pool.max-size:20}")
+    private int maxSize;
+
+    @Value("${delivery.read-replica.health-check-timeout:1s}")
+    private Duration healthCheckTimeout;
+
+    // 트랜잭션 매니저, DatabaseClient, 리포지토리 모두 이 라우팅 팩토리를 쓴다. 꺼져 있으면 replica 풀 없이 모두 primary
+    @Bean
+    public ReplicaRoutingConnectionFactory connectionFactory(R2dbcProperties properties, DeliveryMetrics deliveryMetrics) {
+        ConnectionPool primary = pool("primary", properties.getUrl(), properties.getUsername(), properties.getPassword(),
+                properties.getPool().getInitialSize(), properties.getPool().getMaxSize());
+        if (!enabled || url.isBlank()) {
+            return new ReplicaRoutingConnectionFactory(primary, null, healthCheckTimeout, deliveryMetrics);
+        }
+        ConnectionPool replica = pool("replica", url, username, password, initialSize, maxSize);
+        return new ReplicaRoutingConnectionFactory(primary, replica, healthCheckTimeout, deliveryMetrics);
+    }
+
+    private static ConnectionPool pool(String name, String url, String username, String password, int initialSize, int maxSize) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+                .username(username)
+                .password(password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(name)
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .build());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.deliveryservice.config;
+
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.util.ReadRouting;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ValidationDepth;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 조회 전용으로 표시된 호출(ReadRouting.preferReplica)만 replica 로 보내고 나머지는 primary 로 보낸다.
+ * 트랜잭션 안이거나 replica 헬스 체크가 실패한 상태면 primary 를 쓰고, replica 커넥션 획득이 실패해도 primary 로 넘어간다.
+ * replica 가 없으면(delivery.read-replica.enabled=false) 모든 호출을 primary 로 보낸다.
+ */
+@Slf4j
+public class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    private static final String ROUTE = "delivery.db.route";
+
+    private final ConnectionPool primary;
+    private final ConnectionPool replica;
+    private final Duration healthCheckTimeout;
+    private final DeliveryMetrics deliveryMetrics;
+
+    // 첫 헬스 체크 전에는 primary 로 보낸다
+    private volatile boolean replicaHealthy;
+
+    public ReplicaRoutingConnectionFactory(ConnectionPool primary, ConnectionPool replica,
+                                           Duration healthCheckTimeout, DeliveryMetrics deliveryMetrics) {
+        this.primary = primary;
+        this.replica = replica;
+        this.healthCheckTimeout = healthCheckTimeout;
+        this.deliveryMetrics = deliveryMetrics;
+        setTargetConnectionFactories(replica == null
+                ? Map.of(ReadRouting.Target.PRIMARY, primary)
+                : Map.of(ReadRouting.Target.PRIMARY, primary, ReadRouting.Target.REPLICA, replica));
+        setDefaultTargetConnectionFactory(primary);
+        deliveryMetrics.registry().gauge("delivery.db.replica.healthy", this, factory -> factory.replicaHealthy ? 1 : 0);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            if (replica == null || ReadRouting.target(context) != ReadRouting.Target.REPLICA) {
+                return Mono.just(ReadRouting.Target.PRIMARY);
+            }
+            // TransactionalOperator 안에서는 (begin 포함) 항상 primary
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                    .<Object>map(transaction -> ReadRouting.Target.PRIMARY)
+                    .onErrorResume(NoTransactionException.class, e -> Mono.just(replicaHealthy
+                            ? ReadRouting.Target.REPLICA
+                            : ReadRouting.Target.PRIMARY));
+        });
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return determineTargetConnectionFactory()
+                .flatMap(target -> {
+                    if (replica == null || target != replica) {
+                        deliveryMetrics.increment(ROUTE, "connection", "primary", 1);
+                        return Mono.from(primary.create());
+                    }
+                    return Mono.from(replica.create())
+                            .doOnNext(connection -> deliveryMetrics.increment(ROUTE, "connection", "replica", 1))
+                            .onErrorResume(e -> {
+                                markReplica(false, e);
+                                deliveryMetrics.increment(ROUTE, "connection", "fallback", 1);
+                                return Mono.from(primary.create());
+                            });
+                });
+    }
+
+    // 주기적으로 replica 에 실제 왕복 검증을 보내 상태를 갱신
+    @Scheduled(fixedDelayString = "${delivery.read-replica.health-check-interval-ms:2000}")
+    public Mono<Void> checkReplica() {
+        if (replica == null) {
+            return Mono.empty();
+        }
+        return Mono.usingWhen(replica.create(),
+                        connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)),
+                        Connection::close)
+                .timeout(healthCheckTimeout)
+                .doOnNext(valid -> markReplica(valid, null))
+                .onErrorResume(e -> {
+                    markReplica(false, e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void markReplica(boolean healthy, Throwable cause) {
+        if (replicaHealthy == healthy) {
+            return;
+        }
+        replicaHealthy = healthy;
+        if (healthy) {
+            log.info("replica DB 정상 - 조회 트래픽을 replica 로 보냅니다.");
+        } else {
+            log.warn("replica DB 비정상 - 조회 트래픽을 primary 로 보냅니다.", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (replica != null) {
+            replica.dispose();
+        }
+        primary.dispose();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.deliveryservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling // @Scheduled 백그라운드 작업 활성화
+public class SchedulingConfig {
+}
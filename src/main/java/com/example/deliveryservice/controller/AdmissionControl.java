@@ -0,0 +1,191 @@
+package com.example.deliveryservice.controller;
+
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 배차/완료 요청 수용 제어. 파드별 동시 처리 상한, 라이더별 토큰 버킷, 전체 토큰 버킷(Redisson RRateLimiter) 순으로 확인하고
+ * 넘치면 처리하지 않고 바로 429 + Retry-After 로 응답한다. 재시도 폭주가 락/DB/브로커까지 번지지 않게 한다.
+ * 토큰은 요청 단위로 센다 (일괄 요청도 라이더별 1개, 전체 1개).
+ * Redis 키에 rate/interval 을 넣어 설정을 바꾸면 새 키로 시작하고, 이전 키는 key-ttl 뒤에 사라진다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionControl {
+
+    private static final String KEY_PREFIX = "ratelimit:delivery:";
+    private static final String ADMISSION = "delivery.admission";
+
+    private final RedissonClient redissonClient;
+    private final DeliveryMetrics deliveryMetrics;
+
+    @Value("${delivery.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${delivery.admission.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${delivery.admission.rider.rate:5}")
+    private long riderRate;
+
+    @Value("${delivery.admission.rider.interval:1s}")
+    private Duration riderInterval;
+
+    // 라이더/전체 limiter 키 만료 (사용 중이면 연장)
+    @Value("${delivery.admission.key-ttl:10m}")
+    private Duration keyTtl;
+
+    @Value("${delivery.admission.global.rate:500}")
+    private long globalRate;
+
+    @Value("${delivery.admission.global.interval:1s}")
+    private Duration globalInterval;
+
+    @Value("${delivery.admission.redis-timeout:200ms}")
+    private Duration redisTimeout;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private Cache<String, Limiter> limiters;
+
+    private enum Decision { ADMITTED, RIDER_LIMITED, GLOBAL_LIMITED }
+
+    // Redis 에 설정(trySetRate)을 한 번 쓴 limiter 는 다시 쓰지 않는다
+    private static final class Limiter {
+        private final RRateLimiter rateLimiter;
+        private final long rate;
+        private final Duration interval;
+        private volatile boolean configured;
+
+        private Limiter(RRateLimiter rateLimiter, long rate, Duration interval) {
+            this.rateLimiter = rateLimiter;
+            this.rate = rate;
+            this.interval = interval;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        // 로컬 핸들은 Redis 키 ttl 의 절반만 유지 → 새로 만들 때마다 만료 시간을 연장하므로 설정이 사라진 키를 쓰지 않는다
+        limiters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(keyTtl.dividedBy(2))
+                .build();
+        deliveryMetrics.registry().gauge("delivery.admission.in-flight", inFlight);
+    }
+
+    // subjects: 요청에 포함된 라이더 키. 수용되면 action 결과, 아니면 rejectedBody 로 429
+    public <T> Mono<ResponseEntity<T>> guard(String operation, List<String> subjects,
+                                             Supplier<Mono<ResponseEntity<T>>> action, Supplier<T> rejectedBody) {
+        if (!enabled) {
+            return action.get();
+        }
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                return Mono.just(reject(operation, "concurrency_limited", Duration.ofSeconds(1), rejectedBody));
+            }
+            return decide(operation, subjects)
+                    .flatMap(decision -> switch (decision) {
+                        case RIDER_LIMITED -> Mono.just(reject(operation, "rider_limited", retryAfter(riderRate, riderInterval), rejectedBody));
+                        case GLOBAL_LIMITED -> Mono.just(reject(operation, "global_limited", retryAfter(globalRate, globalInterval), rejectedBody));
+                        case ADMITTED -> {
+                            deliveryMetrics.increment(ADMISSION, operation, "admitted", 1);
+                            yield action.get();
+                        }
+                    })
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    // 전체 버킷에 남은 토큰이 없으면 라이더 토큰을 쓰지 않고 거절한다.
+    // 그다음 라이더별 버킷을 가져가 한 라이더의 재시도가 전체 버킷을 소모하지 않게 하고, 마지막에 전체 토큰을 가져간다.
+    // Redis 장애/지연 시에는 통과 (배차는 조건부 UPDATE 로 한 번만 성공)
+    private Mono<Decision> decide(String operation, List<String> subjects) {
+        Limiter global = limiters.get("global", subject -> limiter(subject, globalRate, globalInterval));
+        return hasPermits(global)
+                .flatMap(globalAvailable -> {
+                    if (!globalAvailable) {
+                        return Mono.just(Decision.GLOBAL_LIMITED);
+                    }
+                    return Flux.fromIterable(new LinkedHashSet<>(subjects))
+                            .flatMap(subject -> tryAcquire(limiters.get(subject, key -> limiter(key, riderRate, riderInterval))))
+                            .all(Boolean::booleanValue)
+                            .flatMap(riderAdmitted -> riderAdmitted
+                                    ? tryAcquire(global).map(admitted -> admitted ? Decision.ADMITTED : Decision.GLOBAL_LIMITED)
+                                    : Mono.just(Decision.RIDER_LIMITED));
+                })
+                .timeout(redisTimeout)
+                .onErrorResume(e -> {
+                    log.warn("수용 제어용 Redis 호출 실패, 통과시킴: {}", operation, e);
+                    deliveryMetrics.increment(ADMISSION, operation, "redis_error", 1);
+                    return Mono.just(Decision.ADMITTED);
+                });
+    }
+
+    // trySetRate 는 이미 있는 키의 설정을 바꾸지 않으므로 rate/interval 을 키에 넣는다 (예: ratelimit:delivery:user:7:5/1000)
+    private Limiter limiter(String subject, long rate, Duration interval) {
+        String key = KEY_PREFIX + subject + ':' + rate + '/' + interval.toMillis();
+        return new Limiter(redissonClient.getRateLimiter(key), rate, interval);
+    }
+
+    private Mono<Boolean> tryAcquire(Limiter limiter) {
+        return configure(limiter)
+                .then(Mono.fromCompletionStage(() -> limiter.rateLimiter.tryAcquireAsync(1)));
+    }
+
+    // 토큰을 쓰지 않고 남은 양만 확인
+    private Mono<Boolean> hasPermits(Limiter limiter) {
+        return configure(limiter)
+                .then(Mono.fromCompletionStage(() -> limiter.rateLimiter.availablePermitsAsync()))
+                .map(permits -> permits > 0);
+    }
+
+    private Mono<Void> configure(Limiter limiter) {
+        if (limiter.configured) {
+            return Mono.empty();
+        }
+        return Mono.fromCompletionStage(() -> limiter.rateLimiter.trySetRateAsync(
+                        RateType.OVERALL, limiter.rate, limiter.interval.toMillis(), RateIntervalUnit.MILLISECONDS))
+                .then(Mono.fromCompletionStage(() -> limiter.rateLimiter.expireAsync(keyTtl)))
+                .doOnSuccess(ignored -> limiter.configured = true)
+                .then();
+    }
+
+    private <T> ResponseEntity<T> reject(String operation, String reason, Duration retryAfter, Supplier<T> body) {
+        deliveryMetrics.increment(ADMISSION, operation, reason, 1);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()))
+                .body(body.get());
+    }
+
+    // 토큰 하나가 다시 채워지는 시간 (초 단위 올림, 최소 1초)
+    private static Duration retryAfter(long rate, Duration interval) {
+        long millisPerPermit = interval.toMillis() / Math.max(rate, 1);
+        return Duration.ofSeconds(Math.max(1, (millisPerPermit + 999) / 1000));
+    }
+}
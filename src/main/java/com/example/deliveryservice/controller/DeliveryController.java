@@ -1,27 +1,91 @@
 package com.example.deliveryservice.controller;
 
+import com.example.deliveryservice.dto.CookingOrderEventDTO;
+import com.example.deliveryservice.dto.DeliveryBatchResponseDTO;
 import com.example.deliveryservice.dto.DeliveryCompleteRequestDTO;
 import com.example.deliveryservice.dto.DeliveryStartRequestDTO;
+import com.example.deliveryservice.dto.OrderPageDTO;
 import com.example.deliveryservice.dto.RabbitResponseDTO;
 import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
 import com.example.deliveryservice.service.DeliveryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/deliveries")
 @RequiredArgsConstructor
 public class DeliveryController {
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_SIZE = 20;
+    private static final double MAX_NEARBY_RADIUS_METERS = 20_000;
+    private static final String TOO_MANY_REQUESTS_MESSAGE = "요청이 많아 잠시 후 다시 시도해 주세요.";
+
     private final DeliveryService deliveryService;
+    private final DeliveryMetrics deliveryMetrics;
+    private final AdmissionControl admissionControl;
 
+    // 메모리 사본에서 응답, 바뀐 게 없으면 304
     @GetMapping("/status/cooking")
-    public Mono<List<OrderCreatedMessage>> getCookingOrders() {
-        return deliveryService.getCookingOrders()
-                .collectList();
+    public Mono<ResponseEntity<List<OrderCreatedMessage>>> getCookingOrders(
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return deliveryService.getCookingOrdersView()
+                .map(view -> {
+                    if (view.etag().equals(ifNoneMatch)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(view.etag())
+                                .<List<OrderCreatedMessage>>build();
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(view.etag())
+                            .body(view.orders());
+                });
+    }
+
+    // 라이더 위치 기준 반경(m) 안의 조리중 주문, 가까운 순
+    @GetMapping("/status/cooking/nearby")
+    public Mono<ResponseEntity<List<OrderCreatedMessage>>> getNearbyCookingOrders(@RequestParam(name = "lat") Double lat,
+                                                                                  @RequestParam(name = "lng") Double lng,
+                                                                                  @RequestParam(name = "radius", defaultValue = "3000") Double radius,
+                                                                                  @RequestParam(name = "limit", defaultValue = "50") Integer limit) {
+        if (Math.abs(lat) > 90 || Math.abs(lng) > 180 || radius <= 0) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return deliveryService.getNearbyCookingOrders(lat, lng, Math.min(radius, MAX_NEARBY_RADIUS_METERS), clampPageSize(limit))
+                .map(ResponseEntity::ok);
+    }
+
+    // 조리중 주문 변경 스트림 (SSE). 프록시 유휴 타임아웃을 피하려고 주기적으로 주석 이벤트를 보낸다
+    @GetMapping(value = "/status/cooking/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CookingOrderEventDTO>> streamCookingOrders() {
+        Flux<ServerSentEvent<CookingOrderEventDTO>> events = deliveryService.streamCookingOrders()
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(String.valueOf(event.getVersion()))
+                        .event(event.getType().name())
+                        .build());
+        Flux<ServerSentEvent<CookingOrderEventDTO>> heartbeats = Flux.interval(HEARTBEAT_INTERVAL)
+                .map(tick -> ServerSentEvent.<CookingOrderEventDTO>builder()
+                        .comment("heartbeat")
+                        .build());
+        return Flux.merge(events, heartbeats);
+    }
+
+    // 조리중 주문 변경 스트림 (NDJSON)
+    @GetMapping(value = "/status/cooking/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CookingOrderEventDTO> streamCookingOrdersNdjson() {
+        return deliveryService.streamCookingOrders();
     }
 
     @GetMapping("status/delivering/{type}/{uid}")
@@ -31,28 +95,130 @@ public class DeliveryController {
                 .collectList();
     }
 
+    // 조리중 주문 페이지 조회 - 응답의 nextCursor 를 다음 요청의 cursor 로 전달
+    @GetMapping("/status/cooking/page")
+    public Mono<OrderPageDTO> getCookingOrdersPage(@RequestParam(name = "cursor", defaultValue = "0") Integer cursor,
+                                                   @RequestParam(name = "size", defaultValue = "50") Integer size) {
+        return deliveryService.getCookingOrdersPage(cursor, clampPageSize(size));
+    }
+
+    @GetMapping("status/delivering/{type}/{uid}/page")
+    public Mono<OrderPageDTO> getDeliveringOrdersPage(@PathVariable(name = "type")String type,
+                                                      @PathVariable(name = "uid")Integer uid,
+                                                      @RequestParam(name = "cursor", defaultValue = "0") Integer cursor,
+                                                      @RequestParam(name = "size", defaultValue = "50") Integer size) {
+        return deliveryService.getDeliveringOrdersPage(type, uid, cursor, clampPageSize(size));
+    }
+
+    private int clampPageSize(Integer size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
     @PostMapping("/start")
     public Mono<ResponseEntity<RabbitResponseDTO>> startDelivery(@RequestBody DeliveryStartRequestDTO deliveryStartRequestDTO) {
-        return deliveryService.startDelivery(deliveryStartRequestDTO)
-                .map(ResponseEntity::ok)
-                .onErrorResume(e -> Mono.just(ResponseEntity
-                        .badRequest()
-                        .body(RabbitResponseDTO.builder()
-                                .isSuccess(false)
-                                .message(e.getMessage())
-                                .build())));
+        return admissionControl.guard("start",
+                List.of(riderKey(deliveryStartRequestDTO.getRiderUserUid(), deliveryStartRequestDTO.getRiderSocialUid(),
+                        deliveryStartRequestDTO.getMerchantUid())),
+                () -> timed("start", deliveryService.startDelivery(deliveryStartRequestDTO))
+                        .map(ResponseEntity::ok)
+                        .onErrorResume(e -> Mono.just(ResponseEntity
+                                .badRequest()
+                                .body(RabbitResponseDTO.builder()
+                                        .isSuccess(false)
+                                        .message(e.getMessage())
+                                        .build()))),
+                DeliveryController::tooManyRequests);
     }
 
     @PostMapping("/complete")
     public Mono<ResponseEntity<RabbitResponseDTO>> completeDelivery(@RequestBody DeliveryCompleteRequestDTO deliveryCompleteRequestDTO) {
-        return deliveryService.completeDelivery(deliveryCompleteRequestDTO)
-                .map(ResponseEntity::ok)
-                .onErrorResume(e -> Mono.just(ResponseEntity
-                        .badRequest()
-                        .body(RabbitResponseDTO.builder()
-                                .isSuccess(false)
-                                .message(e.getMessage())
-                                .build())));
+        return admissionControl.guard("complete",
+                List.of(riderKey(deliveryCompleteRequestDTO.getRiderUserUid(), deliveryCompleteRequestDTO.getRiderSocialUid(),
+                        deliveryCompleteRequestDTO.getMerchantUid())),
+                () -> timed("complete", deliveryService.completeDelivery(deliveryCompleteRequestDTO))
+                        .map(ResponseEntity::ok)
+                        .onErrorResume(e -> Mono.just(ResponseEntity
+                                .badRequest()
+                                .body(RabbitResponseDTO.builder()
+                                        .isSuccess(false)
+                                        .message(e.getMessage())
+                                        .build()))),
+                DeliveryController::tooManyRequests);
     }
 
+    // 여러 주문 한 번에 배차 - 주문별 결과를 요청 순서대로 돌려준다 (일부 성공 가능)
+    @PostMapping("/start/batch")
+    public Mono<ResponseEntity<DeliveryBatchResponseDTO>> startDeliveries(@RequestBody List<DeliveryStartRequestDTO> requests) {
+        if (!isValidBatch(requests, DeliveryStartRequestDTO::getMerchantUid)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return admissionControl.guard("start_batch",
+                requests.stream().map(request -> riderKey(request.getRiderUserUid(), request.getRiderSocialUid(), request.getMerchantUid())).toList(),
+                () -> timedBatch("start_batch", deliveryService.startDeliveries(requests))
+                        .map(ResponseEntity::ok),
+                () -> DeliveryService.failAll(requests.stream().map(DeliveryStartRequestDTO::getMerchantUid).toList(),
+                        TOO_MANY_REQUESTS_MESSAGE));
+    }
+
+    @PostMapping("/complete/batch")
+    public Mono<ResponseEntity<DeliveryBatchResponseDTO>> completeDeliveries(@RequestBody List<DeliveryCompleteRequestDTO> requests) {
+        if (!isValidBatch(requests, DeliveryCompleteRequestDTO::getMerchantUid)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return admissionControl.guard("complete_batch",
+                requests.stream().map(request -> riderKey(request.getRiderUserUid(), request.getRiderSocialUid(), request.getMerchantUid())).toList(),
+                () -> timedBatch("complete_batch", deliveryService.completeDeliveries(requests))
+                        .map(ResponseEntity::ok),
+                () -> DeliveryService.failAll(requests.stream().map(DeliveryCompleteRequestDTO::getMerchantUid).toList(),
+                        TOO_MANY_REQUESTS_MESSAGE));
+    }
+
+    // 수용 제어 단위 - 라이더, 라이더 정보가 없으면 주문
+    private static String riderKey(Integer riderUserUid, Integer riderSocialUid, String merchantUid) {
+        if (riderUserUid != null) {
+            return "user:" + riderUserUid;
+        }
+        if (riderSocialUid != null) {
+            return "social:" + riderSocialUid;
+        }
+        return "order:" + merchantUid;
+    }
+
+    private static RabbitResponseDTO tooManyRequests() {
+        return RabbitResponseDTO.builder()
+                .isSuccess(false)
+                .message(TOO_MANY_REQUESTS_MESSAGE)
+                .build();
+    }
+
+    // null 원소(예: [null]) 도 400 으로 거른다
+    private static <T> boolean isValidBatch(List<T> requests, Function<T, String> merchantUidOf) {
+        return !requests.isEmpty()
+                && requests.size() <= MAX_BATCH_SIZE
+                && requests.stream().allMatch(request -> {
+                    if (request == null) {
+                        return false;
+                    }
+                    String merchantUid = merchantUidOf.apply(request);
+                    return merchantUid != null && !merchantUid.isBlank();
+                });
+    }
+
+    private Mono<DeliveryBatchResponseDTO> timedBatch(String operation, Mono<DeliveryBatchResponseDTO> response) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return response.doOnNext(body -> deliveryMetrics.record(DeliveryMetrics.API, operation,
+                    body.getFailureCount() == 0 ? "success" : body.getSuccessCount() == 0 ? "failure" : "partial",
+                    System.nanoTime() - start));
+        });
+    }
+
+    // 실패도 200 + isSuccess=false 로 응답하므로 http.server.requests 와 별도로 결과별 시간을 남긴다
+    private Mono<RabbitResponseDTO> timed(String operation, Mono<RabbitResponseDTO> response) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return response.doOnNext(body -> deliveryMetrics.record(DeliveryMetrics.API, operation,
+                    body.isSuccess() ? "success" : "failure", System.nanoTime() - start));
+        });
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.deliveryservice.controller;
+
+import com.example.deliveryservice.util.ReadRouting;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+// X-Read-Consistency: primary 헤더가 있으면 이 요청의 조회를 모두 primary 로 보낸다
+// (배차 직후 라이더 앱이 자기 배달중 목록을 다시 읽을 때처럼 replica 지연을 허용할 수 없는 호출용)
+@Component
+public class ReadConsistencyFilter implements WebFilter {
+
+    public static final String HEADER = "X-Read-Consistency";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if ("primary".equalsIgnoreCase(exchange.getRequest().getHeaders().getFirst(HEADER))) {
+            return ReadRouting.primary(chain.filter(exchange));
+        }
+        return chain.filter(exchange);
+    }
+}
@@ -26,6 +26,15 @@ public record Delivery(
         String addressStart,
         @Column("address_destination")
         String addressDestination,
+        // 주문 서비스 DeliveryAddressMessage 와 같은 이름 (Lan = 경도)
+        @Column("address_start_lat")
+        Double addressStartLat,
+        @Column("address_start_lan")
+        Double addressStartLan,
+        @Column("address_destination_lat")
+        Double addressDestinationLat,
+        @Column("address_destination_lan")
+        Double addressDestinationLan,
         @Column("delivery_accept_time")
         LocalDateTime deliveryAcceptTime,
         @Column("delivered_time")
@@ -0,0 +1,23 @@
+package com.example.deliveryservice.domain;
+
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Table("delivery_outbox")
+public record DeliveryOutbox(
+        @Id
+        @Column("id")
+        Long id,
+        @Column("merchant_uid")
+        String merchantUid,
+        @Column("payload")
+        String payload, // status-change 메시지 JSON
+        @Column("created_at")
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,23 @@
+package com.example.deliveryservice.domain;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Repository
+public interface DeliveryOutboxRepository extends ReactiveCrudRepository<DeliveryOutbox, Long> {
+
+    // 쌓인 순서대로 가져와야 merchant_uid 별 발행 순서가 유지된다
+    @Query("SELECT * FROM `delivery_outbox` ORDER BY `id` LIMIT :limit")
+    Flux<DeliveryOutbox> findOldest(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM `delivery_outbox` WHERE `id` IN (:ids)")
+    Mono<Integer> deleteByIdIn(@Param("ids") List<Long> ids);
+}
@@ -8,10 +8,11 @@ import org.springframework.data.r2dbc.repository.Query;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface DeliveryRepository extends ReactiveCrudRepository<Delivery, Integer> {
+public interface DeliveryRepository extends ReactiveCrudRepository<Delivery, Integer>, DeliveryRepositoryCustom {
     @Query("SELECT * FROM `delivery` WHERE `status` = 'ORDER_COOKING'")
     Flux<Delivery> getCookingOrders();
 
@@ -21,6 +22,76 @@ public interface DeliveryRepository extends ReactiveCrudRepository<Delivery, Int
     @Query("SELECT * FROM `delivery` WHERE `rider_social_uid` = :uid AND `status` = 'ORDER_DELIVERING'")
     Flux<Delivery> getDeliveringBySocialUid(@Param("uid") Integer uid);
 
+    // uid 기준 keyset 페이지 조회 (cursor 보다 큰 uid 부터 limit 건)
+    @Query("""
+    SELECT uid, merchant_uid, status, rider_user_uid, rider_social_uid, address_start, address_destination,
+           address_start_lat, address_start_lan, address_destination_lat, address_destination_lan,
+           delivery_accept_time, delivered_time
+    FROM `delivery`
+    WHERE `status` = 'ORDER_COOKING' AND `uid` > :cursor
+    ORDER BY `uid`
+    LIMIT :limit
+    """)
+    Flux<DeliverySummary> findCookingPage(@Param("cursor") int cursor, @Param("limit") int limit);
+
+    @Query("""
+    SELECT uid, merchant_uid, status, rider_user_uid, rider_social_uid, address_start, address_destination,
+           address_start_lat, address_start_lan, address_destination_lat, address_destination_lan,
+           delivery_accept_time, delivered_time
+    FROM `delivery`
+    WHERE `rider_user_uid` = :uid AND `status` = 'ORDER_DELIVERING' AND `uid` > :cursor
+    ORDER BY `uid`
+    LIMIT :limit
+    """)
+    Flux<DeliverySummary> findDeliveringPageByUserUid(@Param("uid") Integer uid, @Param("cursor") int cursor, @Param("limit") int limit);
+
+    @Query("""
+    SELECT uid, merchant_uid, status, rider_user_uid, rider_social_uid, address_start, address_destination,
+           address_start_lat, address_start_lan, address_destination_lat, address_destination_lan,
+           delivery_accept_time, delivered_time
+    FROM `delivery`
+    WHERE `rider_social_uid` = :uid AND `status` = 'ORDER_DELIVERING' AND `uid` > :cursor
+    ORDER BY `uid`
+    LIMIT :limit
+    """)
+    Flux<DeliverySummary> findDeliveringPageBySocialUid(@Param("uid") Integer uid, @Param("cursor") int cursor, @Param("limit") int limit);
+
+    // 기동 시 SLA 타이머 재구성용 (한 번만 실행, idx_delivery_status_uid 사용)
+    @Query("""
+    SELECT uid, merchant_uid, status, created_at, delivery_accept_time
+    FROM `delivery`
+    WHERE `status` IN ('ORDER_COOKING', 'ORDER_DELIVERING')
+    """)
+    Flux<DeliverySlaCandidate> findSlaCandidates();
+
+    // SLA 타이머 누락 보정용 - 조리중 마감(created_at + 기준 시간)이 지난 구간 (from, to] 만 (created_at, uid) 순서로 읽는다.
+    // 조리중/배달중 행만 idx_delivery_status_uid 로 좁힌 뒤 정렬 (진행 중인 주문만이라 작음)
+    @Query("""
+    SELECT uid, merchant_uid, status, created_at, delivery_accept_time
+    FROM `delivery`
+    WHERE `status` = 'ORDER_COOKING'
+      AND (`created_at` > :fromTime OR (`created_at` = :fromTime AND `uid` > :fromUid))
+      AND `created_at` <= :toTime
+    ORDER BY `created_at`, `uid`
+    LIMIT :limit
+    """)
+    Flux<DeliverySlaCandidate> findCookingSlaWindow(@Param("fromTime") LocalDateTime fromTime, @Param("fromUid") int fromUid,
+                                                    @Param("toTime") LocalDateTime toTime, @Param("limit") int limit);
+
+    // 배달중은 배차 시각 기준 (created_at 보다 이르면 created_at, OrderSlaWatchdog.enteredAt 과 같은 기준)
+    @Query("""
+    SELECT uid, merchant_uid, status, created_at, delivery_accept_time
+    FROM `delivery`
+    WHERE `status` = 'ORDER_DELIVERING'
+      AND (GREATEST(`created_at`, COALESCE(`delivery_accept_time`, `created_at`)) > :fromTime
+           OR (GREATEST(`created_at`, COALESCE(`delivery_accept_time`, `created_at`)) = :fromTime AND `uid` > :fromUid))
+      AND GREATEST(`created_at`, COALESCE(`delivery_accept_time`, `created_at`)) <= :toTime
+    ORDER BY GREATEST(`created_at`, COALESCE(`delivery_accept_time`, `created_at`)), `uid`
+    LIMIT :limit
+    """)
+    Flux<DeliverySlaCandidate> findDeliveringSlaWindow(@Param("fromTime") LocalDateTime fromTime, @Param("fromUid") int fromUid,
+                                                       @Param("toTime") LocalDateTime toTime, @Param("limit") int limit);
+
     @Query("SELECT * FROM `delivery` WHERE `merchant_uid` = :merchantUid AND `status` = 'ORDER_COOKING'")
     Mono<Delivery> findCookingByMerchantUid(@Param("merchantUid") String merchantUid);
 
@@ -29,18 +100,41 @@ public interface DeliveryRepository extends ReactiveCrudRepository<Delivery, Int
 
     Flux<Delivery> findAllByMerchantUidIn(List<String> merchantUids);
 
+    // 조리중이고 읽은 version 이 그대로일 때만 배차 → 동시에 눌러도 한 요청만 1을 받는다
+    @Modifying
+    @Query("""
+    UPDATE delivery
+    SET
+        rider_user_uid = :riderUserUid,
+        rider_social_uid = :riderSocialUid,
+        delivery_accept_time = :deliveryAcceptTime,
+        status = 'ORDER_DELIVERING',
+        version = version + 1
+    WHERE merchant_uid = :merchantUid
+      AND status = 'ORDER_COOKING'
+      AND version = :version
+    """)
+    Mono<Integer> claimCooking(@Param("merchantUid") String merchantUid,
+                               @Param("version") int version,
+                               @Param("riderUserUid") Integer riderUserUid,
+                               @Param("riderSocialUid") Integer riderSocialUid,
+                               @Param("deliveryAcceptTime") LocalDateTime deliveryAcceptTime);
+
+    // 배달중이고 읽은 version 이 그대로일 때만 완료 처리
     @Modifying
     @Query("""
     UPDATE delivery
     SET
-        rider_user_uid = :#{#delivery.riderUserUid},
-        rider_social_uid = :#{#delivery.riderSocialUid},
-        delivery_accept_time = :#{#delivery.deliveryAcceptTime},
-        delivered_time = :#{#delivery.deliveredTime},
-        status = :#{#delivery.status}
-    WHERE uid = :#{#delivery.uid}
-    """)
-    Mono<Integer> updateDelivery(@Param("delivery") Delivery delivery);
+        delivered_time = :deliveredTime,
+        status = 'ORDER_DELIVERED',
+        version = version + 1
+    WHERE merchant_uid = :merchantUid
+      AND status = 'ORDER_DELIVERING'
+      AND version = :version
+    """)
+    Mono<Integer> completeDelivering(@Param("merchantUid") String merchantUid,
+                                     @Param("version") int version,
+                                     @Param("deliveredTime") LocalDateTime deliveredTime);
 
 
 }
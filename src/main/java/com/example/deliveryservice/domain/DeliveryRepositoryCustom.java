@@ -0,0 +1,19 @@
+package com.example.deliveryservice.domain;
+
+import com.example.deliveryservice.type.OrderStatus;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface DeliveryRepositoryCustom {
+
+    // merchant_uid 기준 멱등 저장. 입력 순서대로 행별 결과를 돌려준다
+    Flux<DeliveryWriteResult> bulkUpsert(List<Delivery> deliveries);
+
+    Flux<DeliveryState> findStatesByMerchantUidIn(Collection<String> merchantUids);
+
+    // 현재 상태가 fromStatuses 중 하나인 행만 변경. 입력 순서대로 행별 결과(APPLIED, 조건이 맞지 않으면 SKIPPED)를 돌려준다
+    Flux<DeliveryWriteResult> bulkUpdateStatus(Set<OrderStatus> fromStatuses, List<DeliveryStatusChange> changes);
+}
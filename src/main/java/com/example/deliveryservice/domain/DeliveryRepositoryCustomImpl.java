@@ -0,0 +1,168 @@
+package com.example.deliveryservice.domain;
+
+import com.example.deliveryservice.type.OrderStatus;
+import com.example.deliveryservice.type.WriteOutcome;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class DeliveryRepositoryCustomImpl implements DeliveryRepositoryCustom {
+
+    // 같은 주문이 이미 있으면 행은 그대로 두고 충돌만 흡수 (IGNORE 처럼 다른 데이터 오류까지 경고로 바꾸지 않음)
+    static final String UPSERT_SQL = """
+            INSERT INTO `delivery`
+                (merchant_uid, status, rider_user_uid, rider_social_uid, address_start, address_destination,
+                 address_start_lat, address_start_lan, address_destination_lat, address_destination_lan,
+                 delivery_accept_time, delivered_time, version, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE merchant_uid = merchant_uid""";
+
+    static final String FIND_STATES_SQL = "SELECT merchant_uid, status, version FROM `delivery` WHERE merchant_uid IN (:merchantUids)";
+
+    // 같은 상태로 다시 바꾸는 재전달은 version 을 올리지 않도록 status <> target 도 조건에 둔다
+    // version 은 조건에 두지 않는다: 보상 메시지에는 version 이 없고, 되돌릴 수 있는 상태(fromStatuses = 라이더 배차 전) 사이의
+    // 전환은 마지막에 반영된 보상이 이기는 것(last-write-wins)이 의도다. 배차 이후 상태는 status IN 조건으로 막힌다
+    static final String UPDATE_STATUS_PREFIX = "UPDATE `delivery` SET status = ?, version = version + 1"
+            + " WHERE merchant_uid = ? AND status <> ? AND status IN (";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<DeliveryWriteResult> bulkUpsert(List<Delivery> deliveries) {
+        if (deliveries.isEmpty()) {
+            return Flux.empty();
+        }
+
+        // 배치 안에서 중복된 merchantUid 는 첫 번째 것만 저장
+        Map<String, Delivery> unique = new LinkedHashMap<>();
+        deliveries.forEach(delivery -> unique.putIfAbsent(delivery.merchantUid(), delivery));
+
+        // INSERTED/DUPLICATE 는 다시 읽지 않고 행별 INSERT 결과의 생성 키로 가린다.
+        // 새로 넣은 행만 uid 가 생성되고, 충돌로 흡수된 행은 서버가 insert id 0 을 돌려준다 (CLIENT_FOUND_ROWS 설정과 무관)
+        // created_at 은 SLA 워치독이 JVM 시간대로 읽으므로 DB 기본값이 아닌 앱 시각으로 남긴다
+        LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Delivery> toInsert = List.copyOf(unique.values());
+
+        return insertAll(toInsert, createdAt)
+                .collectList()
+                .flatMapMany(insertedFlags -> {
+                    Set<Delivery> inserted = Collections.newSetFromMap(new IdentityHashMap<>());
+                    for (int i = 0; i < toInsert.size(); i++) {
+                        if (insertedFlags.get(i)) {
+                            inserted.add(toInsert.get(i));
+                        }
+                    }
+                    // 배치 안 두 번째 이후의 같은 주문은 저장하지 않았으므로 DUPLICATE
+                    return Flux.fromIterable(deliveries)
+                            .map(delivery -> new DeliveryWriteResult(delivery.merchantUid(),
+                                    inserted.contains(delivery) ? WriteOutcome.INSERTED : WriteOutcome.DUPLICATE));
+                });
+    }
+
+    // 행마다 같은 INSERT 를 바인딩만 바꿔 한 번에 실행 → 결과 하나가 행 하나 (입력 순서)
+    private Flux<Boolean> insertAll(List<Delivery> deliveries, LocalDateTime createdAt) {
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(UPSERT_SQL).returnGeneratedValues("uid");
+            for (int i = 0; i < deliveries.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                Delivery delivery = deliveries.get(i);
+                bind(statement, 0, delivery.merchantUid(), String.class);
+                bind(statement, 1, delivery.status() == null ? null : delivery.status().name(), String.class);
+                bind(statement, 2, delivery.riderUserUid(), Integer.class);
+                bind(statement, 3, delivery.riderSocialUid(), Integer.class);
+                bind(statement, 4, delivery.addressStart(), String.class);
+                bind(statement, 5, delivery.addressDestination(), String.class);
+                bind(statement, 6, delivery.addressStartLat(), Double.class);
+                bind(statement, 7, delivery.addressStartLan(), Double.class);
+                bind(statement, 8, delivery.addressDestinationLat(), Double.class);
+                bind(statement, 9, delivery.addressDestinationLan(), Double.class);
+                bind(statement, 10, delivery.deliveryAcceptTime(), LocalDateTime.class);
+                bind(statement, 11, delivery.deliveredTime(), LocalDateTime.class);
+                statement.bind(12, delivery.version());
+                statement.bind(13, createdAt);
+            }
+            // 충돌 행은 생성 키가 0 이거나 아예 나오지 않는다
+            return Flux.from(statement.execute())
+                    .concatMap(result -> Flux.from(result.map((row, metadata) -> row.get(0, Long.class)))
+                            .defaultIfEmpty(0L)
+                            .last())
+                    .map(generatedUid -> generatedUid > 0);
+        });
+    }
+
+    @Override
+    public Flux<DeliveryState> findStatesByMerchantUidIn(Collection<String> merchantUids) {
+        if (merchantUids.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(FIND_STATES_SQL)
+                .bind("merchantUids", List.copyOf(merchantUids))
+                .map(row -> new DeliveryState(
+                        row.get("merchant_uid", String.class),
+                        OrderStatus.valueOf(row.get("status", String.class)),
+                        row.get("version", Integer.class)))
+                .all();
+    }
+
+    @Override
+    public Flux<DeliveryWriteResult> bulkUpdateStatus(Set<OrderStatus> fromStatuses, List<DeliveryStatusChange> changes) {
+        if (changes.isEmpty()) {
+            return Flux.empty();
+        }
+        if (fromStatuses.isEmpty()) {
+            throw new IllegalArgumentException("fromStatuses 가 비어 있습니다.");
+        }
+
+        // 행마다 같은 UPDATE 를 바인딩만 바꿔 한 번에 실행 → 결과의 영향 행 수로 행별 반영 여부를 바로 안다 (다시 읽지 않음)
+        List<String> sources = fromStatuses.stream().map(Enum::name).sorted().toList();
+        String sql = UPDATE_STATUS_PREFIX + String.join(", ", Collections.nCopies(sources.size(), "?")) + ")";
+
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(sql);
+                    for (int i = 0; i < changes.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        DeliveryStatusChange change = changes.get(i);
+                        statement.bind(0, change.targetStatus().name())
+                                .bind(1, change.merchantUid())
+                                .bind(2, change.targetStatus().name());
+                        for (int j = 0; j < sources.size(); j++) {
+                            statement.bind(3 + j, sources.get(j));
+                        }
+                    }
+                    return Flux.from(statement.execute())
+                            .concatMap(Result::getRowsUpdated);
+                })
+                .index()
+                .map(updated -> new DeliveryWriteResult(changes.get(updated.getT1().intValue()).merchantUid(),
+                        updated.getT2() > 0 ? WriteOutcome.APPLIED : WriteOutcome.SKIPPED));
+    }
+
+    static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static void bind(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.deliveryservice.domain;
+
+import com.example.deliveryservice.type.OrderStatus;
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.time.LocalDateTime;
+
+// SLA 감시 대상 (조리중/배달중) 과 그 상태에 들어간 시각을 구할 컬럼
+public record DeliverySlaCandidate(
+        @Column("uid")
+        Integer uid,
+        @Column("merchant_uid")
+        String merchantUid,
+        OrderStatus status,
+        @Column("created_at")
+        LocalDateTime createdAt,
+        @Column("delivery_accept_time")
+        LocalDateTime deliveryAcceptTime
+) {
+}
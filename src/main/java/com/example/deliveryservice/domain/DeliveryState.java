@@ -0,0 +1,11 @@
+package com.example.deliveryservice.domain;
+
+import com.example.deliveryservice.type.OrderStatus;
+
+// 상태 변경 조건 판단에 필요한 최소 컬럼
+public record DeliveryState(
+        String merchantUid,
+        OrderStatus status,
+        int version
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.deliveryservice.domain;
+
+import com.example.deliveryservice.type.OrderStatus;
+
+// 현재 상태가 허용된 출발 상태 중 하나이고 targetStatus 와 다를 때만 변경
+public record DeliveryStatusChange(
+        String merchantUid,
+        OrderStatus targetStatus
+) {
+}
@@ -0,0 +1,36 @@
+package com.example.deliveryservice.domain;
+
+import com.example.deliveryservice.type.OrderStatus;
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.time.LocalDateTime;
+
+// 목록 조회용 projection - OrderCreatedMessage 에 필요한 컬럼 + 커서용 uid
+public record DeliverySummary(
+        @Column("uid")
+        Integer uid,
+        @Column("merchant_uid")
+        String merchantUid,
+        OrderStatus status,
+        @Column("rider_user_uid")
+        Integer riderUserUid,
+        @Column("rider_social_uid")
+        Integer riderSocialUid,
+        @Column("address_start")
+        String addressStart,
+        @Column("address_destination")
+        String addressDestination,
+        @Column("address_start_lat")
+        Double addressStartLat,
+        @Column("address_start_lan")
+        Double addressStartLan,
+        @Column("address_destination_lat")
+        Double addressDestinationLat,
+        @Column("address_destination_lan")
+        Double addressDestinationLan,
+        @Column("delivery_accept_time")
+        LocalDateTime deliveryAcceptTime,
+        @Column("delivered_time")
+        LocalDateTime deliveredTime
+) {
+}
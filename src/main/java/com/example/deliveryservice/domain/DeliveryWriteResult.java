@@ -0,0 +1,12 @@
+package com.example.deliveryservice.domain;
+
+import com.example.deliveryservice.type.WriteOutcome;
+
+public record DeliveryWriteResult(
+        String merchantUid,
+        WriteOutcome outcome
+) {
+    public boolean isWritten() {
+        return outcome == WriteOutcome.INSERTED || outcome == WriteOutcome.APPLIED;
+    }
+}
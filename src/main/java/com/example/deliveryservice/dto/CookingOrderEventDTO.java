@@ -0,0 +1,19 @@
+package com.example.deliveryservice.dto;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.type.CookingOrderEventType;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@Builder
+@ToString
+public class CookingOrderEventDTO {
+    private CookingOrderEventType type;
+    private long version;
+    private String merchantUid;               // ADDED, REMOVED
+    private List<OrderCreatedMessage> orders; // SNAPSHOT 은 전체, ADDED 는 추가된 주문 하나
+}
@@ -0,0 +1,14 @@
+package com.example.deliveryservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class DeliveryBatchResponseDTO {
+    private int successCount;
+    private int failureCount;
+    private List<DeliveryBatchResultDTO> results; // 요청 순서와 같은 순서
+}
@@ -0,0 +1,12 @@
+package com.example.deliveryservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class DeliveryBatchResultDTO {
+    private String merchantUid;
+    private boolean isSuccess;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.example.deliveryservice.dto;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class OrderPageDTO {
+    private List<OrderCreatedMessage> orders;
+    private Integer nextCursor; // 다음 페이지 요청 시 cursor 로 전달, 마지막 페이지면 null
+}
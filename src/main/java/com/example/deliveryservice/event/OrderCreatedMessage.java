@@ -11,7 +11,7 @@ import java.util.List;
 
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 public class OrderCreatedMessage {
     private String merchantUid;
     private OrderStatus status;
@@ -19,6 +19,10 @@ public class OrderCreatedMessage {
     private Integer riderSocialUid;
     private String addressStart;
     private String addressDestination;
+    private Double addressStartLat;       // 가게 위도
+    private Double addressStartLan;       // 가게 경도
+    private Double addressDestinationLat; // 배달지 위도
+    private Double addressDestinationLan; // 배달지 경도
     private LocalDateTime deliveryAcceptTime;
     private LocalDateTime deliveredTime;
 }
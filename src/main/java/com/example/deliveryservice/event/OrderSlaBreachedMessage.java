@@ -0,0 +1,20 @@
+package com.example.deliveryservice.event;
+
+import com.example.deliveryservice.type.OrderStatus;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// 조리중/배달중 상태로 기준 시간 이상 머문 주문 알림 (delivery-sla.alert 큐)
+@Getter
+@Builder
+@ToString
+public class OrderSlaBreachedMessage {
+    private String merchantUid;
+    private OrderStatus status;
+    private LocalDateTime enteredAt;  // 이 상태에 들어간 시각
+    private LocalDateTime deadline;   // enteredAt + 기준 시간
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,101 @@
+package com.example.deliveryservice.metrics;
+
+import com.example.deliveryservice.domain.DeliveryWriteResult;
+import com.example.deliveryservice.type.WriteOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 배달 서비스 공통 지표. 태그 조합이 몇 개 안 되므로 미터를 한 번 만들어 두고 재사용한다
+ * (호출마다 registry 를 조회하지 않아 hot path 에 켜 두어도 부담이 적다).
+ */
+@Component
+@RequiredArgsConstructor
+public class DeliveryMetrics {
+
+    public static final String DB = "delivery.db";
+    public static final String LOCK_WAIT = "delivery.lock.wait";
+    public static final String PUBLISH_SEND = "delivery.publish.send";
+    public static final String PUBLISH_CONFIRM = "delivery.publish.confirm";
+    public static final String API = "delivery.api";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    // 구독부터 종료 신호까지 걸린 시간을 outcome(success/error/cancel) 태그로 기록
+    public <T> Mono<T> timed(String name, String operation, Mono<T> source) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return source.doFinally(signal -> record(name, operation, outcome(signal), System.nanoTime() - start));
+        });
+    }
+
+    // Redisson 락 획득 대기 시간 (acquired/busy/error)
+    public Mono<Boolean> timedLock(String lock, Mono<Boolean> acquire) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return acquire.doOnEach(signal -> {
+                if (signal.isOnNext()) {
+                    record(LOCK_WAIT, lock, Boolean.TRUE.equals(signal.get()) ? "acquired" : "busy", System.nanoTime() - start);
+                } else if (signal.isOnError()) {
+                    record(LOCK_WAIT, lock, "error", System.nanoTime() - start);
+                }
+            });
+        });
+    }
+
+    public void record(String name, String operation, String outcome, long nanos) {
+        timers.computeIfAbsent(name + '|' + operation + '|' + outcome,
+                        key -> Timer.builder(name)
+                                .tag("operation", operation)
+                                .tag("outcome", outcome)
+                                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void increment(String name, String operation, String outcome, long amount) {
+        counters.computeIfAbsent(name + '|' + operation + '|' + outcome,
+                        key -> Counter.builder(name)
+                                .tag("operation", operation)
+                                .tag("outcome", outcome)
+                                .register(registry))
+                .increment(amount);
+    }
+
+    // 배치 저장/보상 반영 결과 (inserted, duplicate, applied, skipped)
+    public void recordWrites(String operation, List<DeliveryWriteResult> results) {
+        long[] counts = new long[WriteOutcome.values().length];
+        for (DeliveryWriteResult result : results) {
+            counts[result.outcome().ordinal()]++;
+        }
+        for (WriteOutcome outcome : WriteOutcome.values()) {
+            if (counts[outcome.ordinal()] > 0) {
+                increment("delivery.ingest.writes", operation, outcome.name().toLowerCase(), counts[outcome.ordinal()]);
+            }
+        }
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancel";
+            default -> "success";
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.deliveryservice.rabbit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * 바인더 스레드에서 받은 메시지를 크기/시간 기준으로 묶어 처리하는 bounded 파이프라인.
+ * 대기열이 가득 차면 offer() 가 바인더 스레드를 붙잡아 두어 브로커 쪽으로 backpressure 가 전달된다.
+ */
+@Slf4j
+public class BatchPipeline<T> {
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final String name;
+    private final Duration offerTimeout;
+    private final Sinks.Many<T> sink;
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private final Disposable subscription;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final DistributionSummary batchSizes;
+    private final Counter sizeFlushes;
+    private final Counter lingerFlushes;
+    private final Timer batchSuccess;
+    private final Timer batchFailure;
+    private final Timer offerWait;
+    private final Counter offerRejected;
+
+    public BatchPipeline(String name,
+                         int batchSize,
+                         Duration linger,
+                         int concurrency,
+                         int capacity,
+                         Duration offerTimeout,
+                         MeterRegistry meterRegistry,
+                         Function<List<T>, Mono<Void>> batchHandler) {
+        this.name = name;
+        this.offerTimeout = offerTimeout;
+        // 용량이 고정된 큐 → 가득 차면 tryEmitNext 가 FAIL_OVERFLOW 를 돌려준다
+        Queue<T> queue = Queues.<T>get(capacity).get();
+        this.sink = Sinks.many().unicast().onBackpressureBuffer(queue);
+
+        Tags tags = Tags.of("pipeline", name);
+        Gauge.builder("delivery.ingest.queue.depth", queue, Queue::size).tags(tags).register(meterRegistry);
+        Gauge.builder("delivery.ingest.batch.in-flight", inFlight, AtomicInteger::get).tags(tags).register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("delivery.ingest.batch.size").tags(tags).register(meterRegistry);
+        // 꽉 찬 배치는 size, linger 가 지나 덜 찬 채로 나간 배치는 linger
+        this.sizeFlushes = Counter.builder("delivery.ingest.flush").tags(tags).tag("reason", "size").register(meterRegistry);
+        this.lingerFlushes = Counter.builder("delivery.ingest.flush").tags(tags).tag("reason", "linger").register(meterRegistry);
+        this.batchSuccess = Timer.builder("delivery.ingest.batch.duration").tags(tags).tag("outcome", "success").register(meterRegistry);
+        this.batchFailure = Timer.builder("delivery.ingest.batch.duration").tags(tags).tag("outcome", "error").register(meterRegistry);
+        // 대기열이 가득 차서 바인더 스레드가 기다린 시간 (바로 들어간 offer 는 기록하지 않음)
+        this.offerWait = Timer.builder("delivery.ingest.offer.wait").tags(tags).register(meterRegistry);
+        this.offerRejected = Counter.builder("delivery.ingest.offer.rejected").tags(tags).register(meterRegistry);
+
+        this.subscription = sink.asFlux()
+                .bufferTimeout(batchSize, linger, true) // 다운스트림 요청량만큼만 당겨온다
+                .doOnNext(batch -> {
+                    batchSizes.record(batch.size());
+                    (batch.size() >= batchSize ? sizeFlushes : lingerFlushes).increment();
+                })
+                .flatMap(batch -> handle(batch, batchHandler), concurrency)
+                .doFinally(signal -> drained.countDown())
+                .subscribe();
+    }
+
+    private Mono<Void> handle(List<T> batch, Function<List<T>, Mono<Void>> batchHandler) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            inFlight.incrementAndGet();
+            return Mono.defer(() -> batchHandler.apply(batch))
+                    .doOnSuccess(done -> batchSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .onErrorResume(e -> {
+                        batchFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        log.error("[{}] 배치 처리 중 예외 발생: {}건", name, batch.size(), e);
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    // 대기열에 자리가 날 때까지 호출 스레드를 대기시킨다 (최대 offerTimeout)
+    public void offer(T item) {
+        Sinks.EmitResult result = sink.tryEmitNext(item);
+        if (result.isSuccess()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + offerTimeout.toNanos();
+        try {
+            while (result.isFailure()) {
+                if (result != Sinks.EmitResult.FAIL_OVERFLOW && result != Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                    offerRejected.increment();
+                    throw new IllegalStateException("[" + name + "] 파이프라인에 메시지를 넣을 수 없습니다: " + result);
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    offerRejected.increment();
+                    throw new IllegalStateException("[" + name + "] 파이프라인 대기열이 가득 찼습니다.");
+                }
+                LockSupport.parkNanos(PARK_NANOS);
+                result = sink.tryEmitNext(item);
+            }
+        } finally {
+            offerWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // 남은 메시지를 모두 흘려보낸 뒤 종료
+    public void close(Duration timeout) {
+        sink.tryEmitComplete();
+        try {
+            if (!drained.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("[{}] 파이프라인 종료 대기 시간 초과", name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.dispose();
+        }
+    }
+}
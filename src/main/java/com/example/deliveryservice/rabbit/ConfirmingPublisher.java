@@ -0,0 +1,94 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * 브로커 발행 공통 처리. 한 채널에서 순서대로 모두 보낸 뒤 publisher confirm 을 한꺼번에 기다리고,
+ * 모든 메시지가 ack 되어야 완료된다 (nack/타임아웃은 에러). status-change, DLQ, SLA 알림 발행이 함께 쓴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConfirmingPublisher {
+
+    // 발행 대상. name 은 지표 태그와 로그에 쓴다
+    public record Target(String name, String exchange, String routingKey) {
+    }
+
+    private final RabbitTemplate rabbitTemplate;
+    private final DeliveryMetrics deliveryMetrics;
+
+    @Value("${delivery.publisher.confirm-timeout:5s}")
+    private Duration confirmTimeout;
+
+    // keyOf: correlation id 앞부분 (로그에서 주문을 찾을 수 있게), scheduler: 블로킹 전송을 돌릴 스케줄러
+    public <T> Mono<Void> publishAll(Target target, List<T> messages, Function<T, String> keyOf,
+                                     MessagePostProcessor postProcessor, Scheduler scheduler) {
+        if (messages.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> sendAll(target, messages, keyOf, postProcessor))
+                .subscribeOn(scheduler)
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(correlation -> awaitConfirm(target, correlation))
+                .then();
+    }
+
+    public <T> Mono<Void> publishAll(Target target, List<T> messages, Function<T, String> keyOf, Scheduler scheduler) {
+        return publishAll(target, messages, keyOf, message -> message, scheduler);
+    }
+
+    // convertAndSend 묶음 전송 시간 (confirm 대기 제외)
+    private <T> List<CorrelationData> sendAll(Target target, List<T> messages, Function<T, String> keyOf,
+                                              MessagePostProcessor postProcessor) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            List<CorrelationData> correlations = rabbitTemplate.invoke(operations -> {
+                List<CorrelationData> sent = new ArrayList<>(messages.size());
+                for (T message : messages) {
+                    CorrelationData correlation = new CorrelationData(keyOf.apply(message) + ":" + UUID.randomUUID());
+                    operations.convertAndSend(target.exchange(), target.routingKey(), message, postProcessor, correlation);
+                    sent.add(correlation);
+                }
+                return sent;
+            });
+            outcome = "success";
+            return correlations;
+        } finally {
+            deliveryMetrics.record(DeliveryMetrics.PUBLISH_SEND, target.name(), outcome, System.nanoTime() - start);
+        }
+    }
+
+    private Mono<Void> awaitConfirm(Target target, CorrelationData correlation) {
+        long start = System.nanoTime();
+        return Mono.fromFuture(correlation.getFuture())
+                .timeout(confirmTimeout)
+                .doOnNext(confirm -> deliveryMetrics.record(DeliveryMetrics.PUBLISH_CONFIRM, target.name(),
+                        confirm.isAck() ? "ack" : "nack", System.nanoTime() - start))
+                .doOnError(TimeoutException.class, e -> deliveryMetrics.record(DeliveryMetrics.PUBLISH_CONFIRM, target.name(),
+                        "timeout", System.nanoTime() - start))
+                .flatMap(confirm -> confirm.isAck()
+                        ? Mono.<Void>empty()
+                        : Mono.<Void>error(new AmqpException("브로커가 " + target.name() + " 메시지를 거부했습니다: " + confirm.getReason())))
+                .doOnError(e -> log.error("{} 발행 실패: {}", target.name(), correlation.getId(), e));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.config.RabbitConfig;
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * 재시도와 배치 분할 후에도 실패한 주문 메시지를 DLQ 로 보낸다.
+ * 원인과 처리 단계는 헤더로 남기고, status-change 발행과 같이 confirm 이 와야 완료된다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeadLetterPublisher {
+
+    public static final String OPERATION_HEADER = "x-ingest-operation";
+    public static final String EXCEPTION_HEADER = "x-exception-message";
+    public static final String COMPENSATED_HEADER = "x-compensated";
+
+    private static final ConfirmingPublisher.Target TARGET = new ConfirmingPublisher.Target("dead-letter",
+            RabbitConfig.DEAD_LETTER_EXCHANGE, RabbitConfig.DEAD_LETTER_ROUTING_KEY);
+
+    private final ConfirmingPublisher confirmingPublisher;
+
+    public Mono<Void> publishAll(String operation, List<OrderCreatedMessage> messages, Throwable cause, boolean compensated) {
+        if (messages.isEmpty()) {
+            return Mono.empty();
+        }
+        MessagePostProcessor headers = message -> {
+            message.getMessageProperties().setHeader(OPERATION_HEADER, operation);
+            message.getMessageProperties().setHeader(EXCEPTION_HEADER, String.valueOf(cause));
+            message.getMessageProperties().setHeader(COMPENSATED_HEADER, compensated);
+            return message;
+        };
+        // 실패 경로에서만 호출되므로 공용 boundedElastic 사용
+        return confirmingPublisher.publishAll(TARGET, messages, OrderCreatedMessage::getMerchantUid, headers,
+                Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.type.IngestType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 한 배치 안에서 같은 merchantUid 로 들어온 저장/보상 메시지를 최종 상태 하나로 합친다.
+ * - 저장 후 보상: 보상 상태로 한 번만 INSERT (이미 있던 주문이면 보상만 UPDATE)
+ * - 보상 여러 번: 마지막 보상만 반영 (last-write-wins)
+ * - 저장 여러 번: 첫 번째 저장 사용 (이후 사본은 재전달)
+ */
+public final class IngestCoalescer {
+
+    private IngestCoalescer() {
+    }
+
+    /**
+     * @param inserts              INSERT 할 주문 (상태는 도착 순서상 마지막 메시지의 상태)
+     * @param rollbacksIfDuplicate 저장 뒤에 보상이 온 주문. INSERT 가 중복으로 무시되면 이 보상을 UPDATE 로 반영
+     * @param rollbacks            저장 없이 보상만 온 주문
+     * @param merged               합쳐져서 사라진 메시지 수
+     */
+    public record Result(List<OrderCreatedMessage> inserts,
+                         Map<String, OrderCreatedMessage> rollbacksIfDuplicate,
+                         List<OrderCreatedMessage> rollbacks,
+                         int merged) {
+    }
+
+    public static Result coalesce(List<IngestCommand> batch) {
+        Map<String, Pending> pending = new LinkedHashMap<>();
+        for (IngestCommand command : batch) {
+            pending.computeIfAbsent(command.message().getMerchantUid(), merchantUid -> new Pending())
+                    .add(command);
+        }
+
+        List<OrderCreatedMessage> inserts = new ArrayList<>();
+        Map<String, OrderCreatedMessage> rollbacksIfDuplicate = new HashMap<>();
+        List<OrderCreatedMessage> rollbacks = new ArrayList<>();
+        for (Pending order : pending.values()) {
+            if (order.save == null) {
+                rollbacks.add(order.rollback);
+                continue;
+            }
+            inserts.add(order.save.getStatus() == order.last.getStatus()
+                    ? order.save
+                    : order.save.toBuilder().status(order.last.getStatus()).build());
+            if (order.rollback != null) {
+                rollbacksIfDuplicate.put(order.save.getMerchantUid(), order.rollback);
+            }
+        }
+        return new Result(inserts, rollbacksIfDuplicate, rollbacks, batch.size() - pending.size());
+    }
+
+    private static final class Pending {
+        private OrderCreatedMessage save;     // 첫 번째 저장 메시지
+        private OrderCreatedMessage rollback; // 마지막 보상 메시지
+        private OrderCreatedMessage last;     // 도착 순서상 마지막 메시지
+
+        private void add(IngestCommand command) {
+            if (command.type() == IngestType.SAVE) {
+                if (save == null) {
+                    save = command.message();
+                    last = save;
+                }
+            } else {
+                rollback = command.message();
+                last = rollback;
+            }
+        }
+    }
+}
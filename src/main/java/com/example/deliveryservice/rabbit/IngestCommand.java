@@ -0,0 +1,23 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.type.IngestType;
+
+// 저장/보상 메시지를 한 파이프라인에서 도착 순서대로 다루기 위한 래퍼. 배치가 끝나면 ack 로 브로커에 완료를 알린다
+public record IngestCommand(
+        IngestType type,
+        OrderCreatedMessage message,
+        MessageAck ack
+) {
+    public static IngestCommand save(OrderCreatedMessage message, MessageAck ack) {
+        return new IngestCommand(IngestType.SAVE, message, ack);
+    }
+
+    public static IngestCommand rollback(OrderCreatedMessage message, MessageAck ack) {
+        return new IngestCommand(IngestType.ROLLBACK, message, ack);
+    }
+
+    public String operation() {
+        return type == IngestType.SAVE ? "save" : "rollback";
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.deliveryservice.rabbit;
+
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+
+/**
+ * MANUAL ack 모드에서 받은 메시지의 채널/delivery tag. 배치가 커밋된 뒤에 ack, 실패하면 nack(requeue) 한다.
+ * 채널 헤더가 없으면 (AUTO ack, test binder) 아무것도 하지 않는다.
+ */
+@Slf4j
+public record MessageAck(
+        Channel channel,
+        long deliveryTag
+) {
+    public static final MessageAck NONE = new MessageAck(null, 0);
+
+    public static MessageAck of(Message<?> message) {
+        Channel channel = message.getHeaders().get(AmqpHeaders.CHANNEL, Channel.class);
+        Long deliveryTag = message.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class);
+        return channel == null || deliveryTag == null ? NONE : new MessageAck(channel, deliveryTag);
+    }
+
+    public boolean isManual() {
+        return channel != null;
+    }
+
+    public void ack() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            // 채널이 이미 닫혔으면 브로커가 다시 보내고, 저장은 merchant_uid 기준으로 멱등
+            log.warn("ack 실패, 재전달 예정: {}", deliveryTag, e);
+        }
+    }
+
+    public void nack() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.basicNack(deliveryTag, false, true);
+        } catch (Exception e) {
+            log.warn("nack 실패, 채널 종료 시 재전달 예정: {}", deliveryTag, e);
+        }
+    }
+}
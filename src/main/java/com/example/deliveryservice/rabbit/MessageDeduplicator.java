@@ -0,0 +1,219 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재전달/재시도로 같은 메시지가 여러 번 들어올 때 배치 파이프라인에 넣기 전에 걸러낸다.
+ * merchantUid + status 를 키로 일정 시간 기억하며, cluster 모드면 커밋된 메시지를 Redis 에도 기록해 다른 파드가 받은 사본도 거른다.
+ * 커밋 전에는 파드 안에서만 기억한다. 커밋 전에 Redis 에 남기면 이 파드가 배치를 nack 하거나 죽었을 때
+ * 다른 파드로 재전달된 사본이 중복으로 ack 되어 주문이 사라진다.
+ * 같은 이유로 원본이 아직 처리 중일 때 들어온 사본은 바로 ack 하지 않고 붙잡아 두었다가, 원본이 커밋되면 ack, 실패하면 nack 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageDeduplicator {
+
+    private static final String CLUSTER_KEY_PREFIX = "dedup:delivery:";
+    private static final String DUPLICATES = "delivery.ingest.duplicates";
+
+    public enum Verdict {
+        FIRST,     // 처음 보는 메시지 → 파이프라인에 넣는다
+        DUPLICATE, // 이미 커밋된 사본 → 바로 ack
+        HELD       // 원본이 처리 중 → 원본 결과에 따라 ack/nack 되므로 호출한 쪽은 아무것도 하지 않는다
+    }
+
+    private final RedissonClient redissonClient;
+    private final DeliveryMetrics deliveryMetrics;
+
+    @Value("${delivery.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${delivery.dedup.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${delivery.dedup.max-size:100000}")
+    private long maxSize;
+
+    @Value("${delivery.dedup.cluster-enabled:false}")
+    private boolean clusterEnabled;
+
+    // 테스트에서 TTL 만료를 앞당길 수 있게 둔다
+    Ticker ticker = Ticker.systemTicker();
+
+    private Cache<String, Entry> seen;
+
+    @PostConstruct
+    void init() {
+        seen = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                // 원본 결과를 모른 채 밀려난 항목의 사본은 재전달되도록 반환
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (cause.wasEvicted() && entry != null) {
+                        entry.remove().forEach(MessageAck::nack);
+                    }
+                })
+                .build();
+        deliveryMetrics.registry().gauge("delivery.ingest.dedup.size", seen, Cache::estimatedSize);
+    }
+
+    public Verdict check(String operation, OrderCreatedMessage message, MessageAck ack) {
+        if (!enabled || message.getMerchantUid() == null) {
+            return Verdict.FIRST;
+        }
+
+        String key = key(operation, message);
+        while (true) {
+            Entry created = new Entry();
+            Entry existing = seen.asMap().putIfAbsent(key, created);
+            if (existing == null) {
+                if (clusterEnabled && committedInCluster(key)) {
+                    created.commit().forEach(MessageAck::ack);
+                    deliveryMetrics.increment(DUPLICATES, operation, "cluster", 1);
+                    return Verdict.DUPLICATE;
+                }
+                return Verdict.FIRST;
+            }
+            Verdict verdict = existing.offerCopy(ack);
+            if (verdict != null) {
+                deliveryMetrics.increment(DUPLICATES, operation, verdict == Verdict.HELD ? "held" : "local", 1);
+                return verdict;
+            }
+            // 방금 forget/만료로 빠진 항목 → 다시 확인
+        }
+    }
+
+    // 배치가 커밋된 뒤 호출. 붙잡아 둔 사본을 ack 하고, 기록하지 않기로 한 메시지(보상된 주문)는 지운다
+    public void markCommitted(String operation, OrderCreatedMessage message) {
+        if (!enabled || message.getMerchantUid() == null) {
+            return;
+        }
+
+        String key = key(operation, message);
+        Entry entry = seen.getIfPresent(key);
+        if (entry == null) {
+            return;
+        }
+        boolean remember = entry.remember();
+        List<MessageAck> held = remember ? entry.commit() : entry.remove();
+        if (!remember) {
+            seen.asMap().remove(key, entry);
+        }
+        held.forEach(MessageAck::ack);
+        if (!remember || !clusterEnabled) {
+            return;
+        }
+        redissonClient.getBucket(CLUSTER_KEY_PREFIX + key, StringCodec.INSTANCE)
+                .setAsync("1", ttl.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("중복 확인용 Redis 기록 실패: {}", key, e);
+                    return null;
+                });
+    }
+
+    // 보상/DLQ 로 처리를 끝낸 주문은 주문 서비스가 다시 보내면 새로 처리해야 하므로 커밋돼도 기억하지 않는다
+    public void excludeFromRecord(String operation, OrderCreatedMessage message) {
+        if (!enabled || message.getMerchantUid() == null) {
+            return;
+        }
+
+        Entry entry = seen.getIfPresent(key(operation, message));
+        if (entry != null) {
+            entry.forgetOnCommit();
+        }
+    }
+
+    // 파이프라인에 넣지 못했거나 배치가 실패해 브로커가 다시 보낼 메시지는 기억에서 지우고, 붙잡아 둔 사본도 반환한다
+    public void forget(String operation, OrderCreatedMessage message) {
+        if (!enabled || message.getMerchantUid() == null) {
+            return;
+        }
+
+        String key = key(operation, message);
+        Entry entry = seen.asMap().remove(key);
+        if (entry != null) {
+            entry.remove().forEach(MessageAck::nack);
+        }
+        if (clusterEnabled) {
+            redissonClient.getBucket(CLUSTER_KEY_PREFIX + key, StringCodec.INSTANCE).deleteAsync();
+        }
+    }
+
+    // Redis 장애 시에는 중복을 허용 (저장은 merchant_uid 유니크 키, 보상은 version 조건으로 한 번만 반영)
+    private boolean committedInCluster(String key) {
+        try {
+            return redissonClient.getBucket(CLUSTER_KEY_PREFIX + key, StringCodec.INSTANCE).isExists();
+        } catch (RuntimeException e) {
+            log.warn("중복 확인용 Redis 조회 실패, 통과시킴: {}", key, e);
+            return false;
+        }
+    }
+
+    static String key(String operation, OrderCreatedMessage message) {
+        return operation + ':' + message.getMerchantUid() + ':' + message.getStatus();
+    }
+
+    // 원본 한 건의 처리 상태와 그동안 들어와 붙잡아 둔 사본
+    private static final class Entry {
+        private boolean committed;
+        private boolean removed;
+        private boolean remember = true;
+        private final List<MessageAck> held = new ArrayList<>();
+
+        // 빠진 항목이면 null (호출한 쪽이 다시 확인)
+        synchronized Verdict offerCopy(MessageAck ack) {
+            if (removed) {
+                return null;
+            }
+            // AUTO ack 모드는 붙잡아 둘 수 없어 예전처럼 버린다
+            if (committed || !ack.isManual()) {
+                return Verdict.DUPLICATE;
+            }
+            held.add(ack);
+            return Verdict.HELD;
+        }
+
+        synchronized List<MessageAck> commit() {
+            committed = true;
+            return drain();
+        }
+
+        synchronized List<MessageAck> remove() {
+            removed = true;
+            return drain();
+        }
+
+        synchronized void forgetOnCommit() {
+            remember = false;
+        }
+
+        synchronized boolean remember() {
+            return remember;
+        }
+
+        private List<MessageAck> drain() {
+            List<MessageAck> drained = List.copyOf(held);
+            held.clear();
+            return drained;
+        }
+    }
+}
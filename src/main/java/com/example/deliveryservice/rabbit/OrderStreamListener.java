@@ -1,21 +1,29 @@
 package com.example.deliveryservice.rabbit;
 
+import com.example.deliveryservice.domain.DeliveryWriteResult;
 import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
 import com.example.deliveryservice.service.DeliveryService;
 import com.example.deliveryservice.type.OrderStatus;
+import com.example.deliveryservice.type.WriteOutcome;
+import io.r2dbc.spi.R2dbcTransientException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 @Slf4j
@@ -24,152 +32,256 @@ import java.util.function.Consumer;
 public class OrderStreamListener {
 
     private final DeliveryService deliveryService;
-    private final RabbitTemplate rabbitTemplate;
+    private final StatusChangePublisher statusChangePublisher;
+    private final DeliveryMetrics deliveryMetrics;
+    private final MessageDeduplicator messageDeduplicator;
+    private final DeadLetterPublisher deadLetterPublisher;
 
-    // saveOrders 전용 버퍼
-    private final List<OrderCreatedMessage> saveBuffer = Collections.synchronizedList(new ArrayList<>());
-    // orderRollback 전용 버퍼
-    private final List<OrderCreatedMessage> rollbackBuffer = Collections.synchronizedList(new ArrayList<>());
+    @Value("${delivery.ingest.batch-size:100}")
+    private int batchSize;
 
-    private final int BATCH_SIZE = 5;
-    private final long FLUSH_INTERVAL_MS = 10_000; // 10초
-    private final int MAX_RETRIES = 3;
+    @Value("${delivery.ingest.linger:200ms}")
+    private Duration linger;
 
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    @Value("${delivery.ingest.shards:4}")
+    private int shardCount;
 
-    // saveOrders 전용 예약 플러시
-    private ScheduledFuture<?> scheduledSaveFlush;
-    // orderRollback 전용 예약 플러시
-    private ScheduledFuture<?> scheduledRollbackFlush;
+    @Value("${delivery.ingest.queue-capacity:1024}")
+    private int queueCapacity;
 
-    // 기존 saveOrders() 메서드 - 변경 없이 유지 (필요 시 buffer → saveBuffer, scheduledFlush → scheduledSaveFlush 변경 권장)
+    @Value("${delivery.ingest.offer-timeout:5s}")
+    private Duration offerTimeout;
+
+    @Value("${delivery.ingest.retry.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${delivery.ingest.retry.min-backoff:200ms}")
+    private Duration retryMinBackoff;
+
+    @Value("${delivery.ingest.retry.max-backoff:5s}")
+    private Duration retryMaxBackoff;
+
+    @Value("${delivery.ingest.retry.jitter:0.5}")
+    private double retryJitter;
+
+    private final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    // saveOrders, orderRollback 공용 파이프라인을 merchantUid 해시로 나눈 샤드.
+    // 샤드마다 배치를 하나씩 순서대로 처리하므로 같은 주문의 저장/보상 순서가 지켜지고, 샤드끼리는 병렬로 DB 에 쓴다
+    private List<BatchPipeline<IngestCommand>> shards;
+
+    @PostConstruct
+    void startPipelines() {
+        List<BatchPipeline<IngestCommand>> pipelines = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            pipelines.add(new BatchPipeline<>("ingest-" + shard, batchSize, linger, 1, queueCapacity, offerTimeout,
+                    deliveryMetrics.registry(), this::processBatch));
+        }
+        shards = List.copyOf(pipelines);
+    }
+
+    // 바인딩이 먼저 멈춘 뒤 호출되므로 남은 배치를 마저 처리하고 종료
+    @PreDestroy
+    void stopPipelines() {
+        shards.forEach(shard -> shard.close(SHUTDOWN_TIMEOUT));
+    }
+
+    // MANUAL ack 모드: 여기서 반환해도 ack 되지 않고, 배치가 커밋된 뒤 processBatch 에서 ack
     @Bean
-    public Consumer<OrderCreatedMessage> saveOrders() {
+    public Consumer<Message<OrderCreatedMessage>> saveOrders() {
         return message -> {
-            log.info("Order Cooking Message 수신: {}", message);
-            saveBuffer.add(message);
-
-            if (saveBuffer.size() >= BATCH_SIZE) {
-                flushSaveBuffer();
-            } else {
-                scheduleSaveFlushIfNeeded();
-            }
+            // 메시지 단위 로그는 debug, 수신량은 delivery.ingest.* 지표로 확인
+            log.debug("Order Cooking Message 수신: {}", message.getPayload());
+            offer(IngestCommand.save(message.getPayload(), MessageAck.of(message)));
         };
     }
 
-    private void flushSaveBuffer() {
-        List<OrderCreatedMessage> batchToSave;
-
-        synchronized (saveBuffer) {
-            if (saveBuffer.isEmpty()) return;
-            batchToSave = new ArrayList<>(saveBuffer);
-            saveBuffer.clear();
+    // 커밋된 사본은 버퍼에 넣지 않고 바로 ack, 원본이 처리 중인 사본은 원본 결과가 나올 때까지 ack 하지 않는다
+    // 대기열에 넣지 못하면 기록을 지우고 nack(requeue)
+    private void offer(IngestCommand command) {
+        switch (messageDeduplicator.check(command.operation(), command.message(), command.ack())) {
+            case DUPLICATE -> {
+                log.debug("중복 메시지 무시: {}", command.message().getMerchantUid());
+                command.ack().ack();
+                return;
+            }
+            case HELD -> {
+                log.debug("처리 중인 주문의 사본 보류: {}", command.message().getMerchantUid());
+                return;
+            }
+            case FIRST -> {
+            }
         }
+        try {
+            shardOf(command.message().getMerchantUid()).offer(command);
+        } catch (RuntimeException e) {
+            messageDeduplicator.forget(command.operation(), command.message());
+            if (!command.ack().isManual()) {
+                throw e; // AUTO ack 면 바인더가 requeueRejected 로 처리
+            }
+            log.warn("파이프라인 대기열이 가득 차 메시지 반환: {}", command.message().getMerchantUid());
+            command.ack().nack();
+        }
+    }
 
-        attemptSave(batchToSave, 0);
+    private BatchPipeline<IngestCommand> shardOf(String merchantUid) {
+        return shards.get(merchantUid == null ? 0 : Math.floorMod(merchantUid.hashCode(), shards.size()));
+    }
 
-        if (scheduledSaveFlush != null && !scheduledSaveFlush.isDone()) {
-            scheduledSaveFlush.cancel(false);
-        }
+    // 배치 처리가 끝나면 (저장 성공, 또는 보상/DLQ 까지 끝난 경우) 커밋된 메시지로 기록하고 ack, 그 외 실패는 재전달되도록 nack
+    private Mono<Void> processBatch(List<IngestCommand> batch) {
+        return attemptBatch(batch)
+                .doOnSuccess(done -> batch.forEach(command -> {
+                    messageDeduplicator.markCommitted(command.operation(), command.message());
+                    command.ack().ack();
+                }))
+                .onErrorResume(e -> {
+                    log.error("배치 처리 실패, 브로커로 반환: {}건", batch.size(), e);
+                    batch.forEach(command -> {
+                        messageDeduplicator.forget(command.operation(), command.message());
+                        command.ack().nack();
+                    });
+                    return Mono.empty();
+                });
     }
 
-    private void scheduleSaveFlushIfNeeded() {
-        if (scheduledSaveFlush == null || scheduledSaveFlush.isDone()) {
-            scheduledSaveFlush = scheduler.schedule(this::flushSaveBuffer, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    // 주문별로 합친 뒤 INSERT 한 번, 보상 UPDATE 한 번
+    private Mono<Void> attemptBatch(List<IngestCommand> batch) {
+        IngestCoalescer.Result coalesced = IngestCoalescer.coalesce(batch);
+        if (coalesced.merged() > 0) {
+            deliveryMetrics.increment("delivery.ingest.coalesced", "ingest", "merged", coalesced.merged());
         }
-    }
 
-    private void attemptSave(List<OrderCreatedMessage> batch, int retryCount) {
-        deliveryService.saveOrders(batch)
-                .subscribe(success -> {
-                    if (success) {
-                        log.info("배치 저장 성공: {}건", batch.size());
-                    } else {
-                        log.warn("배치 저장 실패. 재시도 {}회", retryCount + 1);
-                        if (retryCount < MAX_RETRIES) {
-                            attemptSave(batch, retryCount + 1);
-                        } else {
-                            log.error("배치 저장 실패 보상 큐 전송");
-                            batch.forEach(msg -> {
-                                msg.setStatus(OrderStatus.ORDER_CONFIRMED);
-                                rabbitTemplate.convertAndSend("status-change.order-service", msg);
-                            });
+        return attemptSave(coalesced.inserts())
+                .flatMap(results -> {
+                    List<OrderCreatedMessage> rollbacks = new ArrayList<>(coalesced.rollbacks());
+                    // 이미 저장돼 있던 주문은 INSERT 가 무시되므로 뒤따라 온 보상을 UPDATE 로 반영
+                    for (DeliveryWriteResult result : results) {
+                        OrderCreatedMessage rollback = coalesced.rollbacksIfDuplicate().get(result.merchantUid());
+                        if (rollback != null && result.outcome() == WriteOutcome.DUPLICATE) {
+                            rollbacks.add(rollback);
                         }
                     }
-                }, error -> {
-                    log.error("배치 저장 중 예외 발생: {}", error.getMessage());
-                    if (retryCount < MAX_RETRIES) {
-                        attemptSave(batch, retryCount + 1);
-                    } else {
-                        batch.forEach(msg -> {
-                            msg.setStatus(OrderStatus.ORDER_CONFIRMED);
-                            rabbitTemplate.convertAndSend("status-change.order-service", msg);
-                        });
+                    return attemptRollbackUpdate(rollbacks);
+                });
+    }
+
+    // 일시적 오류는 backoff 후 재시도하고 끝내 실패하면 에러를 올려 배치 전체를 nack (DB 가 돌아오면 재전달분으로 다시 저장).
+    // 데이터 오류는 배치를 반으로 나눠 가며 문제 있는 주문 한 건만 보상 + DLQ, 나머지는 정상 저장
+    private Mono<List<DeliveryWriteResult>> attemptSave(List<OrderCreatedMessage> batch) {
+        if (batch.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return withBackoff("save", Mono.defer(() -> deliveryService.saveOrders(batch)))
+                .doOnNext(results -> {
+                    log.debug("배치 저장 성공: {}건", results.size());
+                    deliveryMetrics.recordWrites("save", results);
+                })
+                .onErrorResume(e -> !isTransient(e), e -> {
+                    if (batch.size() == 1) {
+                        log.error("주문 저장 실패, 보상 후 DLQ 전송: {}", batch.get(0).getMerchantUid(), e);
+                        return compensate("save", batch, e).thenReturn(List.<DeliveryWriteResult>of());
                     }
+                    deliveryMetrics.increment("delivery.ingest.bisections", "save", "split", 1);
+                    int half = batch.size() / 2;
+                    return attemptSave(batch.subList(0, half))
+                            .flatMap(left -> attemptSave(batch.subList(half, batch.size()))
+                                    .map(right -> {
+                                        List<DeliveryWriteResult> merged = new ArrayList<>(left.size() + right.size());
+                                        merged.addAll(left);
+                                        merged.addAll(right);
+                                        return merged;
+                                    }));
                 });
     }
 
-    // orderRollback 전용 Consumer 및 플러시, 재시도 로직
     @Bean
-    public Consumer<OrderCreatedMessage> orderRollback() {
+    public Consumer<Message<OrderCreatedMessage>> orderRollback() {
         return message -> {
-            log.info("Order Rollback Message 수신: {}", message);
-            rollbackBuffer.add(message);
-
-            if (rollbackBuffer.size() >= BATCH_SIZE) {
-                flushRollbackBuffer();
-            } else {
-                scheduleRollbackFlushIfNeeded();
-            }
+            log.debug("Order Rollback Message 수신: {}", message.getPayload());
+            offer(IngestCommand.rollback(message.getPayload(), MessageAck.of(message)));
         };
     }
 
-    private void flushRollbackBuffer() {
-        List<OrderCreatedMessage> batchToUpdate;
-
-        synchronized (rollbackBuffer) {
-            if (rollbackBuffer.isEmpty()) return;
-            batchToUpdate = new ArrayList<>(rollbackBuffer);
-            rollbackBuffer.clear();
+    private Mono<Void> attemptRollbackUpdate(List<OrderCreatedMessage> batch) {
+        if (batch.isEmpty()) {
+            return Mono.empty();
         }
+        return withBackoff("rollback", Mono.defer(() -> deliveryService.updateOrders(batch)))
+                .doOnNext(results -> {
+                    log.debug("배치 업데이트 성공: {}건", results.size());
+                    deliveryMetrics.recordWrites("rollback", results);
+                    // 대상 주문이 없거나 그 사이 상태가 바뀐 메시지
+                    results.stream()
+                            .filter(result -> !result.isWritten())
+                            .forEach(result -> log.warn("보상 메시지 미반영. 수동 확인 필요: {}", result.merchantUid()));
+                })
+                .then()
+                .onErrorResume(e -> !isTransient(e), e -> {
+                    if (batch.size() == 1) {
+                        log.error("보상 업데이트 실패, DLQ 전송: {}", batch.get(0).getMerchantUid(), e);
+                        return deadLetter("rollback", batch, e, false);
+                    }
+                    deliveryMetrics.increment("delivery.ingest.bisections", "rollback", "split", 1);
+                    int half = batch.size() / 2;
+                    return attemptRollbackUpdate(batch.subList(0, half))
+                            .then(attemptRollbackUpdate(batch.subList(half, batch.size())));
+                });
+    }
 
-        attemptRollbackUpdate(batchToUpdate, 0);
+    // 지수 backoff + jitter 로 재시도 간격을 흩어 DB 가 잠깐 흔들릴 때 재시도가 한꺼번에 몰리지 않게 한다
+    private <T> Mono<T> withBackoff(String operation, Mono<T> attempt) {
+        return attempt
+                .doOnError(e -> {
+                    log.warn("배치 처리 실패 ({}): {}", operation, e.getMessage());
+                    deliveryMetrics.increment("delivery.ingest.attempts", operation, "error", 1);
+                })
+                .retryWhen(Retry.backoff(maxRetries, retryMinBackoff)
+                        .maxBackoff(retryMaxBackoff)
+                        .jitter(retryJitter)
+                        .filter(OrderStreamListener::isTransient) // 데이터 오류는 다시 해도 같으므로 바로 분할
+                        .doBeforeRetry(signal -> deliveryMetrics.increment("delivery.ingest.retries", operation, "backoff", 1))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
 
-        if (scheduledRollbackFlush != null && !scheduledRollbackFlush.isDone()) {
-            scheduledRollbackFlush.cancel(false);
+    // 연결/타임아웃/락 대기 같은 일시적 오류만 재시도 대상. 분할해도 같은 결과라 보상하지 않고 배치 전체를 브로커로 돌려보낸다
+    static boolean isTransient(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof TransientDataAccessException
+                    || e instanceof DataAccessResourceFailureException
+                    || e instanceof R2dbcTransientException
+                    || e instanceof TimeoutException) {
+                return true;
+            }
         }
+        return false;
     }
 
-    private void scheduleRollbackFlushIfNeeded() {
-        if (scheduledRollbackFlush == null || scheduledRollbackFlush.isDone()) {
-            scheduledRollbackFlush = scheduler.schedule(this::flushRollbackBuffer, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
-        }
+    // 처리하지 못한 주문을 ORDER_CONFIRMED 로 되돌리도록 주문 서비스에 알리고, 원본은 DLQ 에 남긴다
+    private Mono<Void> compensate(String operation, List<OrderCreatedMessage> batch, Throwable cause) {
+        // 주문 서비스가 같은 주문을 다시 보내면 새로 처리해야 하므로 커밋돼도 중복 기록을 남기지 않는다 (상태를 바꾸기 전 키로)
+        batch.forEach(msg -> messageDeduplicator.excludeFromRecord(operation, msg));
+        // 배치의 메시지는 다른 단계(dedup 기록, ack)와 공유하므로 바꾸지 않고 사본으로 보낸다
+        List<OrderCreatedMessage> compensations = batch.stream()
+                .map(msg -> msg.toBuilder().status(OrderStatus.ORDER_CONFIRMED).build())
+                .toList();
+        return statusChangePublisher.publishAll(compensations)
+                .doOnSuccess(done -> deliveryMetrics.increment("delivery.ingest.compensations", operation, "success", batch.size()))
+                .onErrorResume(e -> {
+                    log.error("보상 메시지 전송 실패. 수동 조치 필요: {}건", batch.size(), e);
+                    deliveryMetrics.increment("delivery.ingest.compensations", operation, "error", batch.size());
+                    return Mono.empty();
+                })
+                .then(deadLetter(operation, batch, cause, true));
     }
 
-    private void attemptRollbackUpdate(List<OrderCreatedMessage> batch, int retryCount) {
-        deliveryService.updateOrders(batch)
-                .subscribe(success -> {
-                    if (success) {
-                        log.info("배치 업데이트 성공: {}건", batch.size());
-                    } else {
-                        log.warn("배치 업데이트 실패. 재시도 {}회", retryCount + 1);
-                        if (retryCount < MAX_RETRIES) {
-                            attemptRollbackUpdate(batch, retryCount + 1);
-                        } else {
-                            log.error("보상 메시지 처리 실패. 수동 조치 필요.");
-                            batch.forEach(msg -> log.error("보상 실패 메시지: {}", msg));
-                        }
-                    }
-                }, error -> {
-                    log.error("업데이트 중 예외 발생: {}", error.getMessage());
-                    if (retryCount < MAX_RETRIES) {
-                        attemptRollbackUpdate(batch, retryCount + 1);
-                    } else {
-                        batch.forEach(msg -> {
-                            msg.setStatus(OrderStatus.ORDER_CONFIRMED);
-                            rabbitTemplate.convertAndSend("status-change.order-service", msg);
-                        });
-                    }
+    // DLQ 전송까지 실패하면 에러를 올려 배치를 nack → 원본 메시지가 다시 전달된다
+    private Mono<Void> deadLetter(String operation, List<OrderCreatedMessage> batch, Throwable cause, boolean compensated) {
+        return deadLetterPublisher.publishAll(operation, batch, cause, compensated)
+                .doOnSuccess(done -> deliveryMetrics.increment("delivery.ingest.dead-letters", operation, "success", batch.size()))
+                .doOnError(e -> {
+                    log.error("DLQ 전송 실패: {}", batch.stream().map(OrderCreatedMessage::getMerchantUid).toList(), e);
+                    deliveryMetrics.increment("delivery.ingest.dead-letters", operation, "error", batch.size());
                 });
     }
 }
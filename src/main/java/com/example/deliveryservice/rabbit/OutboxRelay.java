@@ -0,0 +1,138 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.domain.DeliveryOutbox;
+import com.example.deliveryservice.domain.DeliveryOutboxRepository;
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.service.StatusChangeOutbox;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * delivery_outbox 에 쌓인 status-change 이벤트를 id 순서대로 묶어서 발행하고, confirm 을 받은 행은 삭제한다.
+ * 여러 파드 중 락을 잡은 한 곳에서만 발행해 merchant_uid 별 순서를 지킨다.
+ * 락은 lease 가 고정이므로 한 번의 drain 이 lease 안에 끝나도록 시간을 제한한다 (lease 가 먼저 끝나면 두 파드가 동시에 발행).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private static final String LOCK_KEY = "lock:delivery:outbox-relay";
+
+    private final DeliveryOutboxRepository outboxRepository;
+    private final StatusChangeOutbox statusChangeOutbox;
+    private final StatusChangePublisher statusChangePublisher;
+    private final RedissonClient redissonClient;
+    private final DeliveryMetrics deliveryMetrics;
+
+    // 비동기 락은 스레드가 아니라 이 값으로 소유자를 구분
+    private final long relayId = ThreadLocalRandom.current().nextLong();
+
+    @Value("${delivery.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${delivery.outbox.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${delivery.outbox.relay-lock-enabled:true}")
+    private boolean relayLockEnabled;
+
+    @Value("${delivery.outbox.relay-lock-lease-ms:30000}")
+    private long relayLockLeaseMs;
+
+    @Value("${delivery.publisher.confirm-timeout:5s}")
+    private Duration confirmTimeout;
+
+    // 락을 잡고 drain 할 수 있는 시간. unlock 할 여유로 confirm 대기 한 번만큼 남긴다
+    private Duration drainBudget;
+
+    @PostConstruct
+    void init() {
+        drainBudget = Duration.ofMillis(relayLockLeaseMs).minus(confirmTimeout);
+        if (relayLockEnabled && drainBudget.compareTo(confirmTimeout) <= 0) {
+            throw new IllegalStateException("delivery.outbox.relay-lock-lease-ms 는 confirm-timeout 의 두 배보다 커야 합니다.");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.outbox.poll-interval-ms:500}")
+    public Mono<Void> relay() {
+        if (!relayLockEnabled) {
+            return drain(null);
+        }
+
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        return deliveryMetrics.timedLock("outbox-relay",
+                        Mono.fromCompletionStage(() -> lock.tryLockAsync(0, relayLockLeaseMs, TimeUnit.MILLISECONDS, relayId)))
+                .filter(Boolean::booleanValue)
+                .flatMap(locked -> drain(drainBudget)
+                        .then(Mono.fromCompletionStage(() -> lock.unlockAsync(relayId)))
+                        .onErrorResume(e -> Mono.fromCompletionStage(() -> lock.unlockAsync(relayId))
+                                .then(Mono.error(e))))
+                .onErrorResume(e -> {
+                    log.error("outbox 발행 중 예외 발생", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // 배치가 꽉 차 있으면 이어서 다음 배치를 처리. budget 이 있으면 남은 시간이 배치 하나의 최대 대기(confirm)보다
+    // 적을 때 새 배치를 시작하지 않고, 전체도 budget 에서 끊는다 (끊긴 배치는 삭제 전이므로 다음 주기에 다시 발행)
+    private Mono<Void> drain(Duration budget) {
+        if (budget == null) {
+            return Mono.defer(this::relayBatch)
+                    .repeat(maxBatchesPerPoll - 1)
+                    .takeUntil(relayed -> relayed < batchSize)
+                    .then();
+        }
+        return Mono.defer(() -> {
+                    long deadline = System.nanoTime() + budget.toNanos();
+                    return Mono.defer(() -> deadline - System.nanoTime() > confirmTimeout.toNanos()
+                                    ? relayBatch()
+                                    : Mono.just(0))
+                            .repeat(maxBatchesPerPoll - 1)
+                            .takeUntil(relayed -> relayed < batchSize)
+                            .then();
+                })
+                .timeout(budget);
+    }
+
+    private Mono<Integer> relayBatch() {
+        return deliveryMetrics.timed(DeliveryMetrics.DB, "outbox_find", outboxRepository.findOldest(batchSize).collectList())
+                .flatMap(rows -> {
+                    if (rows.isEmpty()) {
+                        return Mono.just(0);
+                    }
+
+                    List<Long> ids = new ArrayList<>(rows.size());
+                    List<OrderCreatedMessage> messages = new ArrayList<>(rows.size());
+                    for (DeliveryOutbox row : rows) {
+                        ids.add(row.id());
+                        try {
+                            messages.add(statusChangeOutbox.read(row));
+                        } catch (RuntimeException e) {
+                            // 읽을 수 없는 행은 계속 앞을 막지 않도록 버린다
+                            log.error("outbox 메시지 변환 실패, 삭제: {}", row, e);
+                        }
+                    }
+
+                    return statusChangePublisher.publishAll(messages)
+                            .then(deliveryMetrics.timed(DeliveryMetrics.DB, "outbox_delete", outboxRepository.deleteByIdIn(ids)))
+                            .doOnNext(deleted -> log.debug("outbox 발행 완료: {}건", deleted))
+                            .thenReturn(rows.size());
+                });
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.config.RabbitConfig;
+import com.example.deliveryservice.event.OrderSlaBreachedMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * SLA 초과 주문 알림을 delivery-sla.alert 큐로 보낸다. confirm 이 와야 완료된다 (ConfirmingPublisher).
+ */
+@Component
+@RequiredArgsConstructor
+public class SlaAlertPublisher {
+
+    private static final ConfirmingPublisher.Target TARGET = new ConfirmingPublisher.Target("sla-alert",
+            RabbitConfig.SLA_ALERT_EXCHANGE, RabbitConfig.SLA_ALERT_ROUTING_KEY);
+
+    private final ConfirmingPublisher confirmingPublisher;
+
+    // 드물게 호출되므로 공용 boundedElastic 사용
+    public Mono<Void> publishAll(List<OrderSlaBreachedMessage> messages) {
+        return confirmingPublisher.publishAll(TARGET, messages, OrderSlaBreachedMessage::getMerchantUid, Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * status-change 큐 발행 전용 컴포넌트.
+ * 블로킹 전송은 전용 스케줄러에서 처리하고, 브로커의 publisher confirm 이 와야 완료된다 (ConfirmingPublisher).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatusChangePublisher {
+
+    public static final String STATUS_CHANGE_QUEUE = "status-change.order-service";
+
+    // 기본 exchange 로 큐에 바로 보낸다
+    private static final ConfirmingPublisher.Target TARGET = new ConfirmingPublisher.Target("status-change", "", STATUS_CHANGE_QUEUE);
+
+    private final ConfirmingPublisher confirmingPublisher;
+
+    @Value("${delivery.publisher.threads:4}")
+    private int threads;
+
+    private Scheduler publishScheduler;
+
+    @PostConstruct
+    void init() {
+        publishScheduler = Schedulers.newBoundedElastic(threads, 10_000, "status-publisher");
+    }
+
+    @PreDestroy
+    void dispose() {
+        publishScheduler.dispose();
+    }
+
+    public Mono<Void> publish(OrderCreatedMessage message) {
+        return publishAll(List.of(message));
+    }
+
+    public Mono<Void> publishAll(List<OrderCreatedMessage> messages) {
+        return confirmingPublisher.publishAll(TARGET, messages, OrderCreatedMessage::getMerchantUid, publishScheduler);
+    }
+}
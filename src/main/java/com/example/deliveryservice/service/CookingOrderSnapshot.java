@@ -0,0 +1,188 @@
+package com.example.deliveryservice.service;
+
+import com.example.deliveryservice.dto.CookingOrderEventDTO;
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.type.CookingOrderEventType;
+import com.example.deliveryservice.type.OrderStatus;
+import com.example.deliveryservice.util.GeoGrid;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 조리중 주문의 메모리 사본. DeliveryService 의 상태 변경마다 갱신되고 주기적으로 DB 와 맞춘다.
+ * 내용이 바뀔 때마다 version 이 올라가며, 이 값으로 ETag 를 만들고 스트림 구독자에게 변경분을 보낸다.
+ * 가게 좌표가 있는 주문은 격자 인덱스에도 넣어 라이더 위치 기준 반경 검색에 쓴다.
+ * DB 조회는 그 사이 반영된 변경보다 오래된 값일 수 있으므로, 주문별 마지막 변경 순번을 기억해 두고
+ * 조회를 시작한 뒤 바뀐 주문은 DB 결과로 덮어쓰지 않는다 (스트림에 ADDED → REMOVED 같은 잘못된 변경분이 나가지 않도록).
+ */
+@Component
+public class CookingOrderSnapshot {
+
+    // 파드마다 다른 값 → 다른 파드의 ETag 와 겹치지 않는다
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Map<String, OrderCreatedMessage> orders = new ConcurrentHashMap<>();
+    private final List<Sinks.Many<CookingOrderEventDTO>> subscribers = new CopyOnWriteArrayList<>();
+    private volatile long version;
+    private volatile boolean loaded;
+    private volatile View cached;
+
+    // apply/remove 호출 순번과 주문별 마지막 순번 (this 락 안에서만 접근)
+    private long mutations;
+    private final Map<String, Long> mutatedAt = new HashMap<>();
+    private long lastReconcileStart;
+
+    // 구독자별로 쌓아 둘 수 있는 변경분 수. 넘치면 연결을 끊고 클라이언트가 다시 붙어 스냅샷부터 받는다
+    @Value("${delivery.cooking-stream.max-pending:256}")
+    private int maxPending;
+
+    // 격자 한 칸 크기 (위도 0.01도 ≒ 1.1km)
+    @Value("${delivery.cooking-snapshot.grid-cell-degrees:0.01}")
+    private double gridCellDegrees;
+
+    private GeoGrid<String, OrderCreatedMessage> grid;
+
+    @PostConstruct
+    void initGrid() {
+        grid = new GeoGrid<>(gridCellDegrees);
+    }
+
+    public record View(long version, String etag, List<OrderCreatedMessage> orders) {
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public View current() {
+        long currentVersion = version;
+        View view = cached;
+        if (view == null || view.version() != currentVersion) {
+            view = new View(currentVersion, "\"" + instanceId + "-" + currentVersion + "\"", List.copyOf(orders.values()));
+            cached = view;
+        }
+        return view;
+    }
+
+    // 현재 목록을 한 번 보내고, 이후에는 추가/제거 변경분만 보낸다
+    public Flux<CookingOrderEventDTO> stream() {
+        return Flux.defer(() -> {
+            Sinks.Many<CookingOrderEventDTO> sink = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<CookingOrderEventDTO>get(maxPending).get());
+            View view;
+            synchronized (this) {
+                view = current();
+                subscribers.add(sink);
+            }
+            CookingOrderEventDTO snapshot = CookingOrderEventDTO.builder()
+                    .type(CookingOrderEventType.SNAPSHOT)
+                    .version(view.version())
+                    .orders(view.orders())
+                    .build();
+            return Flux.concat(Mono.just(snapshot), sink.asFlux())
+                    .doFinally(signal -> subscribers.remove(sink));
+        });
+    }
+
+    // 가게 위치가 (lat, lng) 에서 radiusMeters 안인 조리중 주문, 가까운 순
+    public synchronized List<OrderCreatedMessage> nearby(double lat, double lng, double radiusMeters, int limit) {
+        return grid.nearby(lat, lng, radiusMeters, limit).stream()
+                .map(GeoGrid.Hit::value)
+                .toList();
+    }
+
+    // 상태가 조리중이면 추가, 아니면 제거
+    public synchronized void apply(OrderCreatedMessage message) {
+        mutatedAt.put(message.getMerchantUid(), ++mutations);
+        if (message.getStatus() == OrderStatus.ORDER_COOKING) {
+            add(message);
+        } else {
+            removeOrder(message.getMerchantUid());
+        }
+    }
+
+    public synchronized void remove(String merchantUid) {
+        mutatedAt.put(merchantUid, ++mutations);
+        removeOrder(merchantUid);
+    }
+
+    // DB 조회 직전에 호출해 받은 값을 replaceAll 에 넘긴다
+    public synchronized long beginReconcile() {
+        return mutations;
+    }
+
+    // DB 에서 읽은 조리중 주문 전체로 맞춘다. readStart 이후 apply/remove 된 주문은 메모리 쪽이 더 최신이므로 건너뛴다
+    public synchronized void replaceAll(long readStart, Collection<OrderCreatedMessage> cookingOrders) {
+        Map<String, OrderCreatedMessage> latest = cookingOrders.stream()
+                .collect(Collectors.toMap(OrderCreatedMessage::getMerchantUid, Function.identity(), (m1, m2) -> m2));
+
+        List.copyOf(orders.keySet()).stream()
+                .filter(merchantUid -> !latest.containsKey(merchantUid))
+                .filter(merchantUid -> !mutatedSince(merchantUid, readStart))
+                .forEach(this::removeOrder);
+        latest.values().stream()
+                .filter(message -> !mutatedSince(message.getMerchantUid(), readStart))
+                .forEach(this::add);
+
+        // 커밋 전에 반영된 변경도 있을 수 있어, 순번 기록은 한 주기 더 남겨 두고 그 이전 것만 지운다
+        long pruneBefore = lastReconcileStart;
+        mutatedAt.values().removeIf(stamp -> stamp <= pruneBefore);
+        lastReconcileStart = Math.max(lastReconcileStart, readStart);
+        loaded = true;
+    }
+
+    private boolean mutatedSince(String merchantUid, long readStart) {
+        Long stamp = mutatedAt.get(merchantUid);
+        return stamp != null && stamp > readStart;
+    }
+
+    private void removeOrder(String merchantUid) {
+        if (orders.remove(merchantUid) != null) {
+            grid.remove(merchantUid);
+            publish(CookingOrderEventDTO.builder()
+                    .type(CookingOrderEventType.REMOVED)
+                    .version(++version)
+                    .merchantUid(merchantUid)
+                    .build());
+        }
+    }
+
+    private void add(OrderCreatedMessage message) {
+        if (orders.putIfAbsent(message.getMerchantUid(), message) == null) {
+            if (message.getAddressStartLat() != null && message.getAddressStartLan() != null) {
+                grid.put(message.getMerchantUid(), message.getAddressStartLat(), message.getAddressStartLan(), message);
+            }
+            publish(CookingOrderEventDTO.builder()
+                    .type(CookingOrderEventType.ADDED)
+                    .version(++version)
+                    .merchantUid(message.getMerchantUid())
+                    .orders(List.of(message))
+                    .build());
+        }
+    }
+
+    // 락 안에서만 호출되므로 구독자별 순서가 version 순서와 같다
+    private void publish(CookingOrderEventDTO event) {
+        for (Sinks.Many<CookingOrderEventDTO> sink : subscribers) {
+            if (sink.tryEmitNext(event).isFailure()) {
+                subscribers.remove(sink);
+                sink.tryEmitError(new IllegalStateException("조리중 주문 스트림 소비가 너무 느립니다."));
+            }
+        }
+    }
+}
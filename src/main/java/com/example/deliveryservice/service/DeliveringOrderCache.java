@@ -0,0 +1,129 @@
+package com.example.deliveryservice.service;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.util.ReadRouting;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.BaseStatusListener;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 라이더별 배달중 주문 목록의 파드 로컬 캐시. 값은 각 파드 메모리(Caffeine)에만 두고,
+ * 배차/완료가 일어나면 Redis pub/sub 으로 해당 라이더 키만 보내 모든 파드의 항목을 지운다.
+ * 캐시를 채울 때는 아무것도 보내지 않는다. RLocalCachedMap(INVALIDATE) 은 put 마다 무효화를 보내므로
+ * 한 파드의 미스가 다른 파드의 같은 라이더 항목을 지워 파드가 늘수록 적중률이 떨어진다.
+ * 무효화 직전에 시작된 DB 조회가 이전 목록을 다시 넣거나 재연결 중에 무효화를 놓친 경우는 ttl 이 지나면 사라진다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeliveringOrderCache {
+
+    private static final String TOPIC_NAME = "cache:delivery:delivering:invalidate";
+    private static final String CACHE = "delivery.cache";
+    private static final String OPERATION = "delivering";
+    private static final String KEY_DELIMITER = ",";
+
+    private final RedissonClient redissonClient;
+    private final DeliveryMetrics deliveryMetrics;
+
+    @Value("${delivery.delivering-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${delivery.delivering-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${delivery.delivering-cache.ttl:30s}")
+    private Duration ttl;
+
+    private Cache<String, List<OrderCreatedMessage>> cache;
+    private RTopic invalidations;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        invalidations = redissonClient.getTopic(TOPIC_NAME, StringCodec.INSTANCE);
+        invalidations.addListener(String.class, (channel, keys) -> cache.invalidateAll(Arrays.asList(keys.split(KEY_DELIMITER))));
+        // 재구독(재연결)되면 끊긴 동안 놓친 무효화가 있을 수 있으므로 비운다
+        invalidations.addListener(new BaseStatusListener() {
+            @Override
+            public void onSubscribe(String channel) {
+                cache.invalidateAll();
+            }
+        });
+        deliveryMetrics.registry().gauge("delivery.cache.size", Tags.of("operation", OPERATION), cache, Cache::estimatedSize);
+    }
+
+    // 캐시에 없으면 loader 로 읽어서 이 파드에만 넣는다. 배차/완료 직후 값을 넣는 경우가 많아 replica 가 아닌 primary 에서 읽는다
+    public Mono<List<OrderCreatedMessage>> get(String type, Integer uid, Supplier<Mono<List<OrderCreatedMessage>>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String key = key(type, uid);
+        List<OrderCreatedMessage> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            deliveryMetrics.increment(CACHE, OPERATION, "hit", 1);
+            return Mono.just(cached);
+        }
+
+        deliveryMetrics.increment(CACHE, OPERATION, "miss", 1);
+        return ReadRouting.primary(loader.get())
+                .map(List::copyOf)
+                .doOnNext(orders -> cache.put(key, orders));
+    }
+
+    // 배차/완료가 커밋된 주문의 라이더 항목을 이 파드에서 바로 지우고 다른 파드에도 알린다
+    public void evictRiders(Collection<OrderCreatedMessage> messages) {
+        if (!enabled || messages.isEmpty()) {
+            return;
+        }
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (OrderCreatedMessage message : messages) {
+            if (message.getRiderUserUid() != null) {
+                keys.add(key("user", message.getRiderUserUid()));
+            }
+            if (message.getRiderSocialUid() != null) {
+                keys.add(key("social", message.getRiderSocialUid()));
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        cache.invalidateAll(keys);
+        invalidations.publishAsync(String.join(KEY_DELIMITER, keys))
+                .exceptionally(e -> {
+                    log.warn("배달중 주문 캐시 무효화 전송 실패: {}", keys, e);
+                    return 0L;
+                });
+    }
+
+    private static String key(String type, Integer uid) {
+        return ("user".equals(type) ? "user:" : "social:") + uid;
+    }
+}
@@ -2,52 +2,100 @@ package com.example.deliveryservice.service;
 
 import com.example.deliveryservice.domain.Delivery;
 import com.example.deliveryservice.domain.DeliveryRepository;
+import com.example.deliveryservice.domain.DeliveryStatusChange;
+import com.example.deliveryservice.domain.DeliverySummary;
+import com.example.deliveryservice.domain.DeliveryWriteResult;
+import com.example.deliveryservice.dto.CookingOrderEventDTO;
+import com.example.deliveryservice.dto.DeliveryBatchResponseDTO;
+import com.example.deliveryservice.dto.DeliveryBatchResultDTO;
 import com.example.deliveryservice.dto.DeliveryCompleteRequestDTO;
 import com.example.deliveryservice.dto.DeliveryStartRequestDTO;
+import com.example.deliveryservice.dto.OrderPageDTO;
 import com.example.deliveryservice.dto.RabbitResponseDTO;
 import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
 import com.example.deliveryservice.type.OrderStatus;
+import com.example.deliveryservice.util.ReadRouting;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DeliveryService {
-    private final RabbitTemplate rabbitTemplate; // RabbitMQ 직접 접근용
+    private final StatusChangeOutbox statusChangeOutbox; // status-change 이벤트 outbox
+    private final TransactionalOperator transactionalOperator;
     private final DeliveryRepository deliveryRepository;
     private final RedissonClient redissonClient;
+    private final CookingOrderSnapshot cookingOrderSnapshot;
+    private final DeliveringOrderCache deliveringOrderCache;
+    private final OrderSlaWatchdog orderSlaWatchdog;
+    private final DeliveryMetrics deliveryMetrics;
 
-    // DB저장 로직
-    public Mono<Boolean> saveOrders(List<OrderCreatedMessage> messages){
+    // 보상 메시지로 상태를 바꿀 수 있는 상태 (라이더 배차 전)
+    static final Set<OrderStatus> ROLLBACK_SOURCES = EnumSet.of(
+            OrderStatus.ORDER_CREATED, OrderStatus.PAYMENT_COMPLETED, OrderStatus.ORDER_CONFIRMED, OrderStatus.ORDER_COOKING);
+
+    static final String ALREADY_COMPLETED = "이미 완료되었거나 배달중이 아닌 주문입니다.";
+    // 일괄 처리에서 주문별 실패 사유 (없는 주문 / 이미 처리됨 / 아직 처리할 수 없는 상태를 구분)
+    static final String NOT_FOUND = "배송 정보 없음";
+    static final String ALREADY_CLAIMED = "이미 다른 라이더가 배차 받은 주문입니다.";
+    static final String NOT_COOKING = "조리중인 주문이 아니라 배차할 수 없습니다.";
+    static final String ALREADY_DELIVERED = "이미 배달 완료된 주문입니다.";
+    static final String NOT_DELIVERING = "배달중인 주문이 아니라 완료할 수 없습니다.";
+
+    // true 면 조건부 UPDATE 앞에 Redis 락을 한 번 더 잡는다
+    @Value("${delivery.claim.redis-lock-enabled:false}")
+    private boolean redisLockEnabled;
+
+    // DB저장 로직 - 배치 전체를 한 번에 INSERT, 이미 저장된 주문(재전달)은 건너뜀
+    public Mono<List<DeliveryWriteResult>> saveOrders(List<OrderCreatedMessage> messages){
         // 매개변수로 큐에 정보 묶음으로 받아와서 DB에 넣음
         List<Delivery> orders = messages.stream()
-                .map(this::convertToEntity)
+                .map(DeliveryService::convertToEntity)
                 .collect(Collectors.toList());
 
-        return deliveryRepository.saveAll(orders)
-                .doOnNext(saved -> log.info("Saved entity: {}", saved))
-                .count()
-                .doOnNext(count -> log.info("Saved count: {}", count))
-                .map(savedCount -> savedCount == orders.size())
-                .doOnError(e -> log.error("저장 중 예외 발생", e))
-                .onErrorReturn(false);
+        return deliveryMetrics.timed(DeliveryMetrics.DB, "bulk_upsert", deliveryRepository.bulkUpsert(orders).collectList())
+                .doOnNext(results -> {
+                    // 결과는 입력 순서 그대로 → 새로 저장된 주문만 조리중 목록에 반영
+                    for (int i = 0; i < results.size(); i++) {
+                        if (results.get(i).isWritten()) {
+                            cookingOrderSnapshot.apply(messages.get(i));
+                            orderSlaWatchdog.onTransition(messages.get(i).getMerchantUid(), messages.get(i).getStatus());
+                        }
+                    }
+                })
+                .doOnNext(results -> log.debug("Saved count: {}, duplicate: {}",
+                        results.stream().filter(DeliveryWriteResult::isWritten).count(),
+                        results.stream().filter(result -> !result.isWritten()).count()))
+                .doOnError(e -> log.error("저장 중 예외 발생", e));
 
     }
-    public Delivery convertToEntity(OrderCreatedMessage message) {
+    // 매핑 함수는 상태가 없으므로 static (벤치마크에서 스프링 컨텍스트 없이 호출)
+    public static Delivery convertToEntity(OrderCreatedMessage message) {
         return Delivery.builder()
                 .merchantUid(message.getMerchantUid())
                 .status(message.getStatus())
@@ -55,12 +103,32 @@ public class DeliveryService {
                 .riderSocialUid(message.getRiderSocialUid())
                 .addressStart(message.getAddressStart())
                 .addressDestination(message.getAddressDestination())
+                .addressStartLat(message.getAddressStartLat())
+                .addressStartLan(message.getAddressStartLan())
+                .addressDestinationLat(message.getAddressDestinationLat())
+                .addressDestinationLan(message.getAddressDestinationLan())
                 .deliveryAcceptTime(message.getDeliveryAcceptTime())
                 .deliveredTime(message.getDeliveredTime())
                 .version(0) // 새 엔티티는 버전 0부터 시작
                 .build();
     }
-    private OrderCreatedMessage convertToOrderCreatedMessage(Delivery delivery) {
+    static OrderCreatedMessage convertToOrderCreatedMessage(DeliverySummary delivery) {
+        return OrderCreatedMessage.builder()
+                .merchantUid(delivery.merchantUid())
+                .status(delivery.status())
+                .riderUserUid(delivery.riderUserUid())
+                .riderSocialUid(delivery.riderSocialUid())
+                .addressStart(delivery.addressStart())
+                .addressDestination(delivery.addressDestination())
+                .addressStartLat(delivery.addressStartLat())
+                .addressStartLan(delivery.addressStartLan())
+                .addressDestinationLat(delivery.addressDestinationLat())
+                .addressDestinationLan(delivery.addressDestinationLan())
+                .deliveryAcceptTime(delivery.deliveryAcceptTime())
+                .deliveredTime(delivery.deliveredTime())
+                .build();
+    }
+    static OrderCreatedMessage convertToOrderCreatedMessage(Delivery delivery) {
         return OrderCreatedMessage.builder()
                 .merchantUid(delivery.merchantUid())
                 .status(delivery.status())
@@ -68,201 +136,296 @@ public class DeliveryService {
                 .riderSocialUid(delivery.riderSocialUid())
                 .addressStart(delivery.addressStart())
                 .addressDestination(delivery.addressDestination())
+                .addressStartLat(delivery.addressStartLat())
+                .addressStartLan(delivery.addressStartLan())
+                .addressDestinationLat(delivery.addressDestinationLat())
+                .addressDestinationLan(delivery.addressDestinationLan())
                 .deliveryAcceptTime(delivery.deliveryAcceptTime())
                 .deliveredTime(delivery.deliveredTime())
                 .build();
     }
 
-    // 보상 큐에서 가져온 메시지를 기반으로 DB 상태 업데이트
-    public Mono<Boolean> updateOrders(List<OrderCreatedMessage> messages) {
+    // 보상 큐에서 가져온 메시지를 기반으로 DB 상태 업데이트 - 배치당 UPDATE 실행 1번 (미리 읽지 않음)
+    public Mono<List<DeliveryWriteResult>> updateOrders(List<OrderCreatedMessage> messages) {
         if (messages.isEmpty()) {
-            return Mono.just(true);
+            return Mono.just(List.of());
         }
 
-        // merchantUid 목록 추출
-        List<String> merchantUids = messages.stream()
-                .map(OrderCreatedMessage::getMerchantUid)
-                .distinct()
+        Map<String, OrderCreatedMessage> messageMap = messages.stream()
+                .collect(Collectors.toMap(OrderCreatedMessage::getMerchantUid, msg -> msg, (m1, m2) -> m2, LinkedHashMap::new)); // 같은 주문이 여러 번 오면 마지막 상태 사용 (last-write-wins)
+
+        // 라이더가 가져간(배달중/완료) 주문은 보상으로 되돌리지 않는다 → SKIPPED 로 남겨 수동 확인
+        List<DeliveryStatusChange> changes = messageMap.values().stream()
+                .map(message -> new DeliveryStatusChange(message.getMerchantUid(), message.getStatus()))
                 .toList();
 
-        Map<String, OrderCreatedMessage> messageMap = messages.stream()
-                .collect(Collectors.toMap(OrderCreatedMessage::getMerchantUid, msg -> msg, (m1, m2) -> m1)); // 중복 시 첫 번째 사용
-
-        return deliveryRepository.findAllByMerchantUidIn(merchantUids)
-                .map(delivery -> {
-                    OrderCreatedMessage message = messageMap.get(delivery.merchantUid());
-                    if (message == null) return delivery;
-
-                    return Delivery.builder()
-                            .uid(delivery.uid())
-                            .merchantUid(delivery.merchantUid())
-                            .riderUserUid(delivery.riderUserUid())
-                            .riderSocialUid(delivery.riderSocialUid())
-                            .addressStart(delivery.addressStart())
-                            .addressDestination(delivery.addressDestination())
-                            .deliveryAcceptTime(delivery.deliveryAcceptTime())
-                            .deliveredTime(delivery.deliveredTime())
-                            .status(message.getStatus()) // 업데이트 필드
-                            .version(delivery.version())
+        return deliveryMetrics.timed(DeliveryMetrics.DB, "bulk_update_status",
+                        deliveryRepository.bulkUpdateStatus(ROLLBACK_SOURCES, changes).collectList())
+                .doOnNext(results -> results.stream()
+                        .filter(DeliveryWriteResult::isWritten)
+                        .forEach(result -> {
+                            cookingOrderSnapshot.apply(messageMap.get(result.merchantUid()));
+                            orderSlaWatchdog.onTransition(result.merchantUid(), messageMap.get(result.merchantUid()).getStatus());
+                        }))
+                .doOnNext(results -> log.info("Rollback applied: {}, skipped: {}",
+                        results.stream().filter(DeliveryWriteResult::isWritten).count(),
+                        results.stream().filter(result -> !result.isWritten()).count()));
+    }
+
+
+    // 조리중 상태 주문 조회 (replica)
+    public Flux<OrderCreatedMessage> getCookingOrders() {
+        return ReadRouting.preferReplica(deliveryRepository.getCookingOrders())
+                .map(DeliveryService::convertToOrderCreatedMessage);
+    }
+
+    // 조리중 주문 페이지 조회 (replica)
+    public Mono<OrderPageDTO> getCookingOrdersPage(int cursor, int size) {
+        return toPage(ReadRouting.preferReplica(deliveryRepository.findCookingPage(cursor, size + 1)), size);
+    }
+
+    // 배달중 주문 페이지 조회 (replica)
+    public Mono<OrderPageDTO> getDeliveringOrdersPage(String type, Integer uid, int cursor, int size) {
+        if ("user".equals(type)) {
+            return toPage(ReadRouting.preferReplica(deliveryRepository.findDeliveringPageByUserUid(uid, cursor, size + 1)), size);
+        } else {
+            return toPage(ReadRouting.preferReplica(deliveryRepository.findDeliveringPageBySocialUid(uid, cursor, size + 1)), size);
+        }
+    }
+
+    // size + 1 건을 읽어서 다음 페이지가 있는지 판단
+    private Mono<OrderPageDTO> toPage(Flux<DeliverySummary> rows, int size) {
+        return rows.collectList()
+                .map(list -> {
+                    boolean hasNext = list.size() > size;
+                    List<DeliverySummary> page = hasNext ? list.subList(0, size) : list;
+                    return OrderPageDTO.builder()
+                            .orders(page.stream().map(DeliveryService::convertToOrderCreatedMessage).toList())
+                            .nextCursor(hasNext ? page.get(page.size() - 1).uid() : null)
                             .build();
-                })
-                .collectList()
-                .flatMap(updatedList -> {
-                    if (updatedList.isEmpty()) return Mono.just(false);
-                    return deliveryRepository.saveAll(updatedList).then().thenReturn(true);
                 });
     }
 
+    // 조리중 주문 메모리 사본 조회 (아직 적재 전이면 DB 에서 먼저 적재)
+    public Mono<CookingOrderSnapshot.View> getCookingOrdersView() {
+        if (cookingOrderSnapshot.isLoaded()) {
+            return Mono.just(cookingOrderSnapshot.current());
+        }
+        return reconcileCookingOrders()
+                .then(Mono.fromSupplier(cookingOrderSnapshot::current));
+    }
 
-    // 조리중 상태 주문 조회
-    public Flux<OrderCreatedMessage> getCookingOrders() {
-        return deliveryRepository.getCookingOrders()
-                .map(this::convertToOrderCreatedMessage);
+    // 라이더 위치 주변 조리중 주문 (메모리 격자 인덱스에서 조회)
+    public Mono<List<OrderCreatedMessage>> getNearbyCookingOrders(double lat, double lng, double radiusMeters, int limit) {
+        return getCookingOrdersView()
+                .map(view -> cookingOrderSnapshot.nearby(lat, lng, radiusMeters, limit));
     }
 
-    // 배달중 상태 주문 조회
+    // 조리중 주문 스트림 - 현재 목록 한 번, 이후 추가/제거 변경분
+    public Flux<CookingOrderEventDTO> streamCookingOrders() {
+        return getCookingOrdersView()
+                .thenMany(cookingOrderSnapshot.stream());
+    }
+
+    // 기동 직후 적재, 이후 주기적으로 DB 와 맞춤 (다른 파드에서 바뀐 주문 반영)
+    @Scheduled(fixedDelayString = "${delivery.cooking-snapshot.reconcile-interval-ms:5000}")
+    public Mono<Void> reconcileCookingOrders() {
+        return Mono.defer(() -> {
+                    // 조회를 시작한 시점 이후 반영된 주문은 DB 결과로 덮어쓰지 않는다
+                    long readStart = cookingOrderSnapshot.beginReconcile();
+                    // 기준 데이터이므로 replica 지연이 섞이지 않게 primary 에서 읽는다
+                    Mono<List<OrderCreatedMessage>> cookingOrders = ReadRouting.primary(deliveryRepository.getCookingOrders())
+                            .map(DeliveryService::convertToOrderCreatedMessage)
+                            .collectList();
+                    return deliveryMetrics.timed(DeliveryMetrics.DB, "cooking_reconcile", cookingOrders)
+                            .doOnNext(orders -> cookingOrderSnapshot.replaceAll(readStart, orders));
+                })
+                .doOnError(e -> log.error("조리중 주문 목록 동기화 실패", e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    // 배달중 상태 주문 조회 - 라이더별 캐시에서 응답, 없으면 DB
     public Flux<OrderCreatedMessage> getDeliveringOrders(String type,Integer uid) {
+        return deliveringOrderCache.get(type, uid, () -> findDeliveringOrders(type, uid).collectList())
+                .flatMapIterable(orders -> orders);
+    }
+
+    // 배달중 상태 주문 DB 조회 (replica)
+    private Flux<OrderCreatedMessage> findDeliveringOrders(String type,Integer uid) {
         if("user".equals(type)){
-            return deliveryRepository.getDeliveringByUserUid(uid)
-                    .map(this::convertToOrderCreatedMessage);
+            return ReadRouting.preferReplica(deliveryRepository.getDeliveringByUserUid(uid))
+                    .map(DeliveryService::convertToOrderCreatedMessage);
         }else{
-            return deliveryRepository.getDeliveringBySocialUid(uid)
-                    .map(this::convertToOrderCreatedMessage);
+            return ReadRouting.preferReplica(deliveryRepository.getDeliveringBySocialUid(uid))
+                    .map(DeliveryService::convertToOrderCreatedMessage);
         }
     }
 
-    @Transactional
     public Mono<RabbitResponseDTO> startDelivery(DeliveryStartRequestDTO deliveryStartRequestDTO) {
-        log.info("start dto is :: {}", deliveryStartRequestDTO.toString());
+        log.debug("start dto is :: {}", deliveryStartRequestDTO);
 
-        String lockKey = "lock:delivery:start:" + deliveryStartRequestDTO.getMerchantUid();
-        RLock lock = redissonClient.getLock(lockKey);
+        Mono<RabbitResponseDTO> claim = claimDelivery(deliveryStartRequestDTO);
+        if (redisLockEnabled) {
+            claim = withStartLock(deliveryStartRequestDTO.getMerchantUid(), claim);
+        }
 
-        return Mono.fromCallable(() -> {
-                    boolean acquired = lock.tryLock(3, 10, TimeUnit.SECONDS); // 최대 3초 대기, 10초 유지
-                    if (!acquired) {
-                        throw new IllegalStateException("이미 다른 요청이 처리 중입니다.");
-                    }
-                    return true;
-                })
-                .subscribeOn(Schedulers.boundedElastic()) // 블로킹 코드 offload
-                .flatMap(locked -> deliveryRepository.findCookingByMerchantUid(deliveryStartRequestDTO.getMerchantUid())
-                        .switchIfEmpty(Mono.error(new RuntimeException("배송 정보 없음")))
-                        .flatMap(delivery -> {
-                            Delivery updated = Delivery.builder()
-                                    .uid(delivery.uid())
-                                    .merchantUid(delivery.merchantUid())
-                                    .riderUserUid(deliveryStartRequestDTO.getRiderUserUid())
-                                    .riderSocialUid(deliveryStartRequestDTO.getRiderSocialUid())
-                                    .addressStart(delivery.addressStart())
-                                    .addressDestination(delivery.addressDestination())
-                                    .deliveryAcceptTime(deliveryStartRequestDTO.getDeliveryAcceptTime())
-                                    .deliveredTime(delivery.deliveredTime())
-                                    .status(OrderStatus.ORDER_DELIVERING)
-                                    .version(delivery.version())
-                                    .build();
-                            System.out.println("DB 저장하기 전");
-
-                            // updateDelivery 메서드 호출 후 결과 처리
-                            return deliveryRepository.updateDelivery(updated)
-                                    .flatMap(updatedCount -> {
-                                        if (updatedCount > 0) {
-                                            // 업데이트 성공
-                                            return Mono.just(updated);
-                                        } else {
-                                            // 업데이트 실패
-                                            return Mono.error(new RuntimeException("배달 상태 업데이트 실패"));
-                                        }
-                                    })
-                                    .map(this::convertToOrderCreatedMessage);
-                        })
-                        .flatMap(message -> {
-                            try {
-                                System.out.println("큐에 보내기 전");
-                                rabbitTemplate.convertAndSend("status-change.order-service", message);
-                                log.info("배달중 큐로 보낸 메시지: {}", message);
-
-                                return Mono.just(RabbitResponseDTO.builder()
-                                        .isSuccess(true)
-                                        .message("배달이 시작 되었습니다.")
-                                        .build());
-                            } catch (Exception e) {
-                                log.error("배달 시작 실패", e);
-                                return Mono.just(RabbitResponseDTO.builder()
-                                        .isSuccess(false)
-                                        .message("배달 시작에 실패 했습니다!!")
-                                        .build());
-                            }
-                        }))
+        return claim
                 .onErrorResume(error -> {
                     log.error("전체 처리 중 예외 발생", error);
                     return Mono.just(RabbitResponseDTO.builder()
                             .isSuccess(false)
                             .message(error.getMessage())
                             .build());
-                })
-                .doFinally(signalType -> {
-                    if (lock.isHeldByCurrentThread()) {
-                        lock.unlock();
-                        log.debug("락 해제 완료: {}", lockKey);
-                    }
                 });
     }
 
-    @Transactional
-    public Mono<RabbitResponseDTO> completeDelivery(DeliveryCompleteRequestDTO deliveryCompleteRequestDTO) {
-        log.info("complete dto is :: {}", deliveryCompleteRequestDTO);
-
-        return deliveryRepository.findDeliveringByMerchantUid(deliveryCompleteRequestDTO.getMerchantUid())
+    // 조건부 UPDATE 한 번으로 배차 주인을 정한다 (Redis 락 불필요)
+    private Mono<RabbitResponseDTO> claimDelivery(DeliveryStartRequestDTO deliveryStartRequestDTO) {
+        return deliveryRepository.findCookingByMerchantUid(deliveryStartRequestDTO.getMerchantUid())
                 .switchIfEmpty(Mono.error(new RuntimeException("배송 정보 없음")))
                 .flatMap(delivery -> {
-                    // 1. 상태 변경
-                    Delivery updated = Delivery.builder()
-                            .uid(delivery.uid())
-                            .merchantUid(delivery.merchantUid())
-                            .riderUserUid(delivery.riderUserUid())
-                            .riderSocialUid(delivery.riderSocialUid())
-                            .addressStart(delivery.addressStart())
-                            .addressDestination(delivery.addressDestination())
-                            .deliveryAcceptTime(delivery.deliveryAcceptTime())
-                            .deliveredTime(deliveryCompleteRequestDTO.getDeliveredTime())
-                            .status(OrderStatus.ORDER_DELIVERED)
-                            .version(delivery.version())
-                            .build();
+                    Delivery updated = toClaimed(delivery, deliveryStartRequestDTO);
 
-                    // 2. DB 저장 후 업데이트된 행의 수 처리
-                    return deliveryRepository.updateDelivery(updated)
+                    return deliveryRepository.claimCooking(delivery.merchantUid(), delivery.version(),
+                                    updated.riderUserUid(), updated.riderSocialUid(), updated.deliveryAcceptTime())
                             .flatMap(updatedCount -> {
                                 if (updatedCount > 0) {
-                                    // 3. 업데이트 성공 시 메시지 변환
+                                    // 배차 성공
                                     return Mono.just(updated);
                                 } else {
-                                    // 4. 업데이트 실패 시 에러 처리
-                                    return Mono.error(new RuntimeException("배달 상태 업데이트 실패"));
+                                    // 그 사이 다른 라이더가 먼저 배차 받음
+                                    return Mono.error(new IllegalStateException("이미 다른 라이더가 배차 받은 주문입니다."));
                                 }
                             })
-                            .map(this::convertToOrderCreatedMessage);
+                            .map(DeliveryService::convertToOrderCreatedMessage);
+                })
+                // 상태 변경과 status-change 이벤트를 같은 트랜잭션에 기록, 발행은 OutboxRelay 가 처리
+                .flatMap(message -> statusChangeOutbox.append(message).thenReturn(message))
+                .as(transactionalOperator::transactional)
+                .transform(claim -> deliveryMetrics.timed(DeliveryMetrics.DB, "claim", claim))
+                .doOnNext(message -> {
+                    log.debug("배달중 outbox 에 기록한 메시지: {}", message);
+                    cookingOrderSnapshot.remove(message.getMerchantUid());
+                    deliveringOrderCache.evictRiders(List.of(message));
+                    orderSlaWatchdog.onTransition(message.getMerchantUid(), message.getStatus());
                 })
-                .flatMap(message -> {
-                    try {
-                        // 5. 메시지 큐 전송
-                        rabbitTemplate.convertAndSend("status-change.order-service", message);
-                        log.info("배달완료 큐로 보낸 메시지: {}", message);
-
-                        // 6. 성공 응답 반환
-                        return Mono.just(RabbitResponseDTO.builder()
-                                .isSuccess(true)
-                                .message("배달이 완료 되었습니다.")
-                                .build());
-                    } catch (Exception e) {
-                        // 큐 전송 실패
-                        log.error("배달 완료 큐 전송 실패", e);
-                        return Mono.just(RabbitResponseDTO.builder()
-                                .isSuccess(false)
-                                .message("배달 완료에 실패 했습니다!!")
-                                .build());
+                .thenReturn(RabbitResponseDTO.builder()
+                        .isSuccess(true)
+                        .message("배달이 시작 되었습니다.")
+                        .build());
+    }
+
+    private static Delivery toClaimed(Delivery delivery, DeliveryStartRequestDTO request) {
+        return Delivery.builder()
+                .uid(delivery.uid())
+                .merchantUid(delivery.merchantUid())
+                .riderUserUid(request.getRiderUserUid())
+                .riderSocialUid(request.getRiderSocialUid())
+                .addressStart(delivery.addressStart())
+                .addressDestination(delivery.addressDestination())
+                .addressStartLat(delivery.addressStartLat())
+                .addressStartLan(delivery.addressStartLan())
+                .addressDestinationLat(delivery.addressDestinationLat())
+                .addressDestinationLan(delivery.addressDestinationLan())
+                .deliveryAcceptTime(request.getDeliveryAcceptTime())
+                .deliveredTime(delivery.deliveredTime())
+                .status(OrderStatus.ORDER_DELIVERING)
+                .version(delivery.version() + 1)
+                .build();
+    }
+
+    private static Delivery toCompleted(Delivery delivery, LocalDateTime deliveredTime) {
+        return Delivery.builder()
+                .uid(delivery.uid())
+                .merchantUid(delivery.merchantUid())
+                .riderUserUid(delivery.riderUserUid())
+                .riderSocialUid(delivery.riderSocialUid())
+                .addressStart(delivery.addressStart())
+                .addressDestination(delivery.addressDestination())
+                .addressStartLat(delivery.addressStartLat())
+                .addressStartLan(delivery.addressStartLan())
+                .addressDestinationLat(delivery.addressDestinationLat())
+                .addressDestinationLan(delivery.addressDestinationLan())
+                .deliveryAcceptTime(delivery.deliveryAcceptTime())
+                .deliveredTime(deliveredTime)
+                .status(OrderStatus.ORDER_DELIVERED)
+                .version(delivery.version() + 1)
+                .build();
+    }
+
+    // Redis 락 fallback - 스레드 대신 요청별 소유자 id 로 잡고 풀어서 boundedElastic 을 쓰지 않는다
+    private <T> Mono<T> withStartLock(String merchantUid, Mono<T> action) {
+        String lockKey = "lock:delivery:start:" + merchantUid;
+        RLock lock = redissonClient.getLock(lockKey);
+        long ownerId = ThreadLocalRandom.current().nextLong();
+
+        return deliveryMetrics.timedLock("delivery-start",
+                        Mono.fromCompletionStage(() -> lock.tryLockAsync(3, 10, TimeUnit.SECONDS, ownerId))) // 최대 3초 대기, 10초 유지
+                .flatMap(acquired -> {
+                    if (!acquired) {
+                        return Mono.error(new IllegalStateException("이미 다른 요청이 처리 중입니다."));
                     }
+                    return action.doFinally(signalType -> {
+                        lock.unlockAsync(ownerId);
+                        log.debug("락 해제 완료: {}", lockKey);
+                    });
+                });
+    }
+
+    // 일괄 배차용 - 기다리지 않고 주문별 락을 시도해(배치끼리 교착 없음) 잡은 주문만 action 에 넘기고, 끝나면 모두 푼다
+    private <T> Mono<T> withStartLocks(Collection<String> merchantUids, Function<Set<String>, Mono<T>> action) {
+        long ownerId = ThreadLocalRandom.current().nextLong();
+        List<RLock> held = new CopyOnWriteArrayList<>();
+
+        return Flux.fromIterable(merchantUids)
+                .concatMap(merchantUid -> {
+                    RLock lock = redissonClient.getLock("lock:delivery:start:" + merchantUid);
+                    return deliveryMetrics.timedLock("delivery-start",
+                                    Mono.fromCompletionStage(() -> lock.tryLockAsync(0, 10, TimeUnit.SECONDS, ownerId)))
+                            .filter(Boolean::booleanValue)
+                            .doOnNext(acquired -> held.add(lock))
+                            .map(acquired -> merchantUid);
                 })
+                .collect(Collectors.toSet())
+                .flatMap(action)
+                .doFinally(signalType -> held.forEach(lock -> lock.unlockAsync(ownerId)));
+    }
+
+    public Mono<RabbitResponseDTO> completeDelivery(DeliveryCompleteRequestDTO deliveryCompleteRequestDTO) {
+        log.debug("complete dto is :: {}", deliveryCompleteRequestDTO);
+
+        return deliveryRepository.findDeliveringByMerchantUid(deliveryCompleteRequestDTO.getMerchantUid())
+                .switchIfEmpty(Mono.error(new RuntimeException("배송 정보 없음")))
+                .flatMap(delivery -> {
+                    Delivery updated = toCompleted(delivery, deliveryCompleteRequestDTO.getDeliveredTime());
+
+                    // 배달중이고 읽은 version 이 그대로일 때만 완료 → 동시/재시도 완료 요청은 한 번만 반영
+                    return deliveryRepository.completeDelivering(delivery.merchantUid(), delivery.version(),
+                                    deliveryCompleteRequestDTO.getDeliveredTime())
+                            .flatMap(updatedCount -> updatedCount > 0
+                                    ? Mono.just(updated)
+                                    : Mono.error(new IllegalStateException(ALREADY_COMPLETED)))
+                            .map(DeliveryService::convertToOrderCreatedMessage);
+                })
+                // 상태 변경과 같은 트랜잭션에서 outbox 에 기록 (완료하지 못했으면 기록하지 않음)
+                .flatMap(message -> statusChangeOutbox.append(message).thenReturn(message))
+                .as(transactionalOperator::transactional)
+                .transform(complete -> deliveryMetrics.timed(DeliveryMetrics.DB, "complete", complete))
+                .doOnNext(message -> {
+                    log.debug("배달완료 outbox 에 기록한 메시지: {}", message);
+                    cookingOrderSnapshot.remove(message.getMerchantUid());
+                    deliveringOrderCache.evictRiders(List.of(message));
+                    orderSlaWatchdog.onTransition(message.getMerchantUid(), message.getStatus());
+                })
+                .thenReturn(RabbitResponseDTO.builder()
+                        .isSuccess(true)
+                        .message("배달이 완료 되었습니다.")
+                        .build())
+                .onErrorResume(IllegalStateException.class, conflict -> Mono.just(RabbitResponseDTO.builder()
+                        .isSuccess(false)
+                        .message(conflict.getMessage())
+                        .build()))
                 .onErrorResume(error -> {
                     log.error("배달 완료 처리 중 예외 발생", error);
                     return Mono.just(RabbitResponseDTO.builder()
@@ -272,6 +435,182 @@ public class DeliveryService {
                 });
     }
 
+    // 여러 주문 한 번에 배차 - 조회 1번, 주문별 조건부 UPDATE, outbox 기록을 한 트랜잭션으로 처리.
+    // 배차할 수 없는 주문은 실패로 돌려주고 나머지는 반영 (일부 성공), status-change 는 OutboxRelay 가 묶어서 발행
+    public Mono<DeliveryBatchResponseDTO> startDeliveries(List<DeliveryStartRequestDTO> requests) {
+        Map<String, DeliveryStartRequestDTO> byMerchantUid = new LinkedHashMap<>();
+        requests.forEach(request -> byMerchantUid.putIfAbsent(request.getMerchantUid(), request));
 
-}
+        Mono<List<BatchOutcome>> claim = redisLockEnabled
+                ? withStartLocks(byMerchantUid.keySet(), locked -> claimAll(byMerchantUid, locked))
+                : claimAll(byMerchantUid, byMerchantUid.keySet());
+
+        return claim
+                .doOnNext(this::onBatchCommitted)
+                .map(outcomes -> toBatchResponse(requests.stream().map(DeliveryStartRequestDTO::getMerchantUid).toList(),
+                        outcomes, "배달이 시작 되었습니다."))
+                .onErrorResume(error -> {
+                    log.error("일괄 배차 처리 중 예외 발생", error);
+                    return Mono.just(failAll(requests.stream().map(DeliveryStartRequestDTO::getMerchantUid).toList(),
+                            "배차 과정에서 오류가 발생했습니다."));
+                });
+    }
+
+    // claimable 에 든 주문만 배차하고 나머지(락을 잡지 못한 주문)는 실패로 돌려준다
+    private Mono<List<BatchOutcome>> claimAll(Map<String, DeliveryStartRequestDTO> byMerchantUid, Set<String> claimable) {
+        Mono<Map<String, Delivery>> found = claimable.isEmpty()
+                ? Mono.just(Map.of())
+                : deliveryRepository.findAllByMerchantUidIn(List.copyOf(claimable)).collectMap(Delivery::merchantUid);
+
+        return found
+                .flatMap(deliveries -> Flux.fromIterable(byMerchantUid.values())
+                        .concatMap(request -> claimable.contains(request.getMerchantUid())
+                                ? claimOne(deliveries.get(request.getMerchantUid()), request)
+                                : Mono.just(BatchOutcome.failed(request.getMerchantUid(), "이미 다른 요청이 처리 중입니다.")))
+                        .collectList())
+                .flatMap(this::appendSucceeded)
+                .as(transactionalOperator::transactional)
+                .transform(batch -> deliveryMetrics.timed(DeliveryMetrics.DB, "claim_batch", batch));
+    }
+
+    private Mono<BatchOutcome> claimOne(Delivery delivery, DeliveryStartRequestDTO request) {
+        if (delivery == null) {
+            return Mono.just(BatchOutcome.failed(request.getMerchantUid(), NOT_FOUND));
+        }
+        if (delivery.status() == OrderStatus.ORDER_DELIVERING || delivery.status() == OrderStatus.ORDER_DELIVERED) {
+            return Mono.just(BatchOutcome.failed(request.getMerchantUid(), ALREADY_CLAIMED));
+        }
+        if (delivery.status() != OrderStatus.ORDER_COOKING) {
+            return Mono.just(BatchOutcome.failed(request.getMerchantUid(), NOT_COOKING));
+        }
+
+        Delivery updated = toClaimed(delivery, request);
+        return deliveryRepository.claimCooking(delivery.merchantUid(), delivery.version(),
+                        updated.riderUserUid(), updated.riderSocialUid(), updated.deliveryAcceptTime())
+                .map(updatedCount -> updatedCount > 0
+                        ? BatchOutcome.succeeded(convertToOrderCreatedMessage(updated))
+                        : BatchOutcome.failed(request.getMerchantUid(), ALREADY_CLAIMED));
+    }
+
+    // 여러 주문 한 번에 배달 완료 - startDeliveries 와 같은 방식
+    public Mono<DeliveryBatchResponseDTO> completeDeliveries(List<DeliveryCompleteRequestDTO> requests) {
+        Map<String, DeliveryCompleteRequestDTO> byMerchantUid = new LinkedHashMap<>();
+        requests.forEach(request -> byMerchantUid.putIfAbsent(request.getMerchantUid(), request));
+
+        return deliveryRepository.findAllByMerchantUidIn(List.copyOf(byMerchantUid.keySet()))
+                .collectMap(Delivery::merchantUid)
+                .flatMap(found -> Flux.fromIterable(byMerchantUid.values())
+                        .concatMap(request -> completeOne(found.get(request.getMerchantUid()), request))
+                        .collectList())
+                .flatMap(this::appendSucceeded)
+                .as(transactionalOperator::transactional)
+                .transform(batch -> deliveryMetrics.timed(DeliveryMetrics.DB, "complete_batch", batch))
+                .doOnNext(this::onBatchCommitted)
+                .map(outcomes -> toBatchResponse(requests.stream().map(DeliveryCompleteRequestDTO::getMerchantUid).toList(),
+                        outcomes, "배달이 완료 되었습니다."))
+                .onErrorResume(error -> {
+                    log.error("일괄 배달 완료 처리 중 예외 발생", error);
+                    return Mono.just(failAll(requests.stream().map(DeliveryCompleteRequestDTO::getMerchantUid).toList(),
+                            "배달 완료 과정에서 오류가 발생했습니다."));
+                });
+    }
+
+    private Mono<BatchOutcome> completeOne(Delivery delivery, DeliveryCompleteRequestDTO request) {
+        if (delivery == null) {
+            return Mono.just(BatchOutcome.failed(request.getMerchantUid(), NOT_FOUND));
+        }
+        if (delivery.status() == OrderStatus.ORDER_DELIVERED) {
+            return Mono.just(BatchOutcome.failed(request.getMerchantUid(), ALREADY_DELIVERED));
+        }
+        if (delivery.status() != OrderStatus.ORDER_DELIVERING) {
+            return Mono.just(BatchOutcome.failed(request.getMerchantUid(), NOT_DELIVERING));
+        }
+
+        Delivery updated = toCompleted(delivery, request.getDeliveredTime());
+        return deliveryRepository.completeDelivering(delivery.merchantUid(), delivery.version(), request.getDeliveredTime())
+                .map(updatedCount -> updatedCount > 0
+                        ? BatchOutcome.succeeded(convertToOrderCreatedMessage(updated))
+                        // 읽은 뒤 다른 요청이 먼저 완료함
+                        : BatchOutcome.failed(request.getMerchantUid(), ALREADY_COMPLETED));
+    }
 
+    // 커밋된 주문을 조리중 사본에서 빼고, 라이더 배달중 캐시 무효화, SLA 타이머 교체
+    private void onBatchCommitted(List<BatchOutcome> outcomes) {
+        List<OrderCreatedMessage> committed = outcomes.stream()
+                .filter(BatchOutcome::isSuccess)
+                .map(BatchOutcome::message)
+                .toList();
+        committed.forEach(message -> cookingOrderSnapshot.remove(message.getMerchantUid()));
+        deliveringOrderCache.evictRiders(committed);
+        committed.forEach(message -> orderSlaWatchdog.onTransition(message.getMerchantUid(), message.getStatus()));
+    }
+
+    // 성공한 주문의 status-change 이벤트를 같은 트랜잭션에서 한 번에 기록
+    private Mono<List<BatchOutcome>> appendSucceeded(List<BatchOutcome> outcomes) {
+        List<OrderCreatedMessage> messages = outcomes.stream()
+                .filter(BatchOutcome::isSuccess)
+                .map(BatchOutcome::message)
+                .toList();
+        return statusChangeOutbox.appendAll(messages).thenReturn(outcomes);
+    }
+
+    // 요청 순서대로 결과를 만든다. 같은 주문이 두 번 들어오면 두 번째는 실패로 표시
+    private static DeliveryBatchResponseDTO toBatchResponse(List<String> merchantUids, List<BatchOutcome> outcomes, String successMessage) {
+        Map<String, BatchOutcome> byMerchantUid = outcomes.stream()
+                .collect(Collectors.toMap(BatchOutcome::merchantUid, outcome -> outcome));
+        Set<String> reported = new HashSet<>();
+        List<DeliveryBatchResultDTO> results = new ArrayList<>(merchantUids.size());
+        for (String merchantUid : merchantUids) {
+            BatchOutcome outcome = byMerchantUid.get(merchantUid);
+            if (!reported.add(merchantUid)) {
+                results.add(DeliveryBatchResultDTO.builder()
+                        .merchantUid(merchantUid)
+                        .isSuccess(false)
+                        .message("요청에 중복된 주문입니다.")
+                        .build());
+                continue;
+            }
+            results.add(DeliveryBatchResultDTO.builder()
+                    .merchantUid(merchantUid)
+                    .isSuccess(outcome.isSuccess())
+                    .message(outcome.isSuccess() ? successMessage : outcome.error())
+                    .build());
+        }
+        return summarize(results);
+    }
+
+    // 모든 주문을 같은 사유로 실패 처리 (오류, 수용 제어 거절)
+    public static DeliveryBatchResponseDTO failAll(List<String> merchantUids, String message) {
+        return summarize(merchantUids.stream()
+                .map(merchantUid -> DeliveryBatchResultDTO.builder()
+                        .merchantUid(merchantUid)
+                        .isSuccess(false)
+                        .message(message)
+                        .build())
+                .toList());
+    }
+
+    private static DeliveryBatchResponseDTO summarize(List<DeliveryBatchResultDTO> results) {
+        int successCount = (int) results.stream().filter(DeliveryBatchResultDTO::isSuccess).count();
+        return DeliveryBatchResponseDTO.builder()
+                .successCount(successCount)
+                .failureCount(results.size() - successCount)
+                .results(results)
+                .build();
+    }
+
+    // 일괄 처리 중 주문 하나의 결과 (성공이면 발행할 메시지, 실패면 사유)
+    private record BatchOutcome(String merchantUid, OrderCreatedMessage message, String error) {
+        static BatchOutcome succeeded(OrderCreatedMessage message) {
+            return new BatchOutcome(message.getMerchantUid(), message, null);
+        }
+
+        static BatchOutcome failed(String merchantUid, String error) {
+            return new BatchOutcome(merchantUid, null, error);
+        }
+
+        boolean isSuccess() {
+            return message != null;
+        }
+    }
+}
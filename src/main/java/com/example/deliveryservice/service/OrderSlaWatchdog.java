@@ -0,0 +1,328 @@
+package com.example.deliveryservice.service;
+
+import com.example.deliveryservice.domain.DeliveryRepository;
+import com.example.deliveryservice.domain.DeliverySlaCandidate;
+import com.example.deliveryservice.event.OrderSlaBreachedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.rabbit.SlaAlertPublisher;
+import com.example.deliveryservice.type.OrderStatus;
+import com.example.deliveryservice.util.HierarchicalTimingWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 조리중/배달중 상태로 기준 시간 이상 머문 주문을 찾는다. 테이블을 주기적으로 훑지 않고,
+ * 상태 전이 때 주문별 타이머를 타이밍 휠에 등록(다음 전이에서 교체/취소)해 주문당 O(1) 로 관리한다.
+ * 타이머는 전이를 처리한 파드에만 있으므로, 만료 시 DB 에서 아직 같은 상태인지 확인한 뒤에만 알린다.
+ * 재기동하면 DB 의 조리중/배달중 주문으로 다시 채우고, 여러 파드가 같은 주문을 알리지 않도록 Redis 에 알림 기록을 남긴다.
+ * 파드가 대체 없이 내려가면 그 파드의 타이머가 사라지므로, 락을 잡은 한 파드만 주기마다 지난 보정 이후 마감이 지난 주문을 읽어
+ * 다시 등록한다 (워터마크는 Redis 에 두어 어느 파드가 락을 잡아도 이어서 읽는다).
+ * 시각 컬럼은 zone 없는 LocalDateTime 이라 JVM 기본 zone 으로 해석한다. created_at 은 애플리케이션이 같은 zone 으로 기록하고
+ * (이전 행의 DB 기본값은 MySQL 세션 time_zone 기준), delivery_accept_time 은 클라이언트 값이라 [created_at, 현재] 범위로 보정한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderSlaWatchdog {
+
+    private static final String ALERTED_KEY_PREFIX = "sla:delivery:alerted:";
+    private static final String SLA = "delivery.sla";
+    private static final String CATCH_UP_LOCK_KEY = "lock:delivery:sla-catch-up";
+    private static final String CATCH_UP_WATERMARK_PREFIX = "sla:delivery:catch-up:";
+
+    private final DeliveryRepository deliveryRepository;
+    private final SlaAlertPublisher slaAlertPublisher;
+    private final RedissonClient redissonClient;
+    private final DeliveryMetrics deliveryMetrics;
+
+    @Value("${delivery.sla.enabled:true}")
+    private boolean enabled;
+
+    @Value("${delivery.sla.cooking-timeout:60m}")
+    private Duration cookingTimeout;
+
+    @Value("${delivery.sla.delivering-timeout:90m}")
+    private Duration deliveringTimeout;
+
+    @Value("${delivery.sla.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${delivery.sla.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${delivery.sla.alert-dedup-ttl:24h}")
+    private Duration alertDedupTtl;
+
+    @Value("${delivery.sla.retry-delay:1m}")
+    private Duration retryDelay;
+
+    @Value("${delivery.sla.catch-up-interval-ms:60000}")
+    private long catchUpIntervalMs;
+
+    @Value("${delivery.sla.catch-up-page-size:500}")
+    private int catchUpPageSize;
+
+    private final long catchUpOwnerId = ThreadLocalRandom.current().nextLong();
+
+    private HierarchicalTimingWheel<String, SlaTimer> wheel;
+
+    private record SlaTimer(String merchantUid, OrderStatus status, long enteredAtMillis, long deadlineMillis) {
+    }
+
+    // 상태별로 이미 보정한 위치 - 상태에 들어간 시각(마감 - 기준 시간)과 uid 의 keyset
+    record Watermark(LocalDateTime enteredAt, int uid) {
+        static Watermark parse(String value) {
+            int separator = value.lastIndexOf('|');
+            return new Watermark(LocalDateTime.parse(value.substring(0, separator)),
+                    Integer.parseInt(value.substring(separator + 1)));
+        }
+
+        String format() {
+            return enteredAt + "|" + uid;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        deliveryMetrics.registry().gauge("delivery.sla.timers", wheel, HierarchicalTimingWheel::size);
+    }
+
+    // 상태 전이마다 호출 - 조리중/배달중이면 타이머 등록(이전 상태의 타이머 교체), 그 외 상태면 취소
+    public void onTransition(String merchantUid, OrderStatus status) {
+        if (!enabled || merchantUid == null) {
+            return;
+        }
+        Duration timeout = timeoutOf(status);
+        if (timeout == null) {
+            wheel.cancel(merchantUid);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        wheel.schedule(merchantUid, new SlaTimer(merchantUid, status, now, now + timeout.toMillis()), now + timeout.toMillis());
+    }
+
+    // 기동 후 DB 기준으로 다시 채움. 그 사이 전이로 등록된 타이머가 더 최신이므로 덮어쓰지 않는다
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        deliveryRepository.findSlaCandidates()
+                .filter(candidate -> candidate.createdAt() != null)
+                .map(this::toTimer)
+                .filter(timer -> wheel.scheduleIfAbsent(timer.merchantUid(), timer, timer.deadlineMillis()))
+                .count()
+                .subscribe(count -> log.info("SLA 타이머 {}건을 DB 에서 다시 등록했습니다.", count),
+                        e -> log.error("SLA 타이머 재구성 실패", e));
+    }
+
+    // 다른 파드가 내려가며 잃은 타이머 보정. 락은 풀지 않고 주기만큼 유지해 클러스터 전체에서 주기당 한 파드만 실행한다.
+    // 상태별로 지난 워터마크 이후 마감이 지난 주문만 한 페이지 읽어 등록 (다음 tick 에 DB 확인 후 알림)
+    @Scheduled(fixedDelayString = "${delivery.sla.catch-up-interval-ms:60000}",
+            initialDelayString = "${delivery.sla.catch-up-interval-ms:60000}")
+    public Mono<Void> catchUp() {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        RLock lock = redissonClient.getLock(CATCH_UP_LOCK_KEY);
+        return Mono.fromCompletionStage(() -> lock.tryLockAsync(0, catchUpIntervalMs, TimeUnit.MILLISECONDS, catchUpOwnerId))
+                .filter(Boolean::booleanValue)
+                .flatMapMany(locked -> Flux.just(OrderStatus.ORDER_COOKING, OrderStatus.ORDER_DELIVERING))
+                .concatMap(this::catchUpWindow)
+                .reduce(0L, Long::sum)
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        deliveryMetrics.increment(SLA, "catch_up", "scheduled", count);
+                        log.info("SLA 타이머 {}건을 catch-up 으로 등록했습니다.", count);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.error("SLA catch-up 실패", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Long> catchUpWindow(OrderStatus status) {
+        RBucket<String> stored = redissonClient.getBucket(CATCH_UP_WATERMARK_PREFIX + status, StringCodec.INSTANCE);
+        long now = System.currentTimeMillis();
+        // 상태에 들어간 시각이 to 이하면 마감이 지났다
+        LocalDateTime to = toLocalDateTime(now - timeoutOf(status).toMillis());
+        return Mono.fromCompletionStage(stored::getAsync)
+                .map(Watermark::parse)
+                // 처음에는 알림 중복 기록이 남아 있는 기간만큼만 거슬러 올라간다
+                .defaultIfEmpty(new Watermark(to.minus(alertDedupTtl), 0))
+                .flatMap(from -> findWindow(status, from, to)
+                        .collectList()
+                        .flatMap(page -> {
+                            // 짧은 페이지면 to 까지 다 읽었다. 꽉 찼으면 마지막 행 다음부터 이어서 읽는다
+                            Watermark next = page.size() < catchUpPageSize
+                                    ? new Watermark(to, Integer.MAX_VALUE)
+                                    : new Watermark(windowKey(page.get(page.size() - 1)), page.get(page.size() - 1).uid());
+                            long scheduled = page.stream()
+                                    .map(this::toTimer)
+                                    .filter(timer -> timer.deadlineMillis() <= now)
+                                    .filter(timer -> wheel.scheduleIfAbsent(timer.merchantUid(), timer, timer.deadlineMillis()))
+                                    .count();
+                            return Mono.fromCompletionStage(() -> stored.setAsync(next.format()))
+                                    .thenReturn(scheduled);
+                        }));
+    }
+
+    private Flux<DeliverySlaCandidate> findWindow(OrderStatus status, Watermark from, LocalDateTime to) {
+        return status == OrderStatus.ORDER_COOKING
+                ? deliveryRepository.findCookingSlaWindow(from.enteredAt(), from.uid(), to, catchUpPageSize)
+                : deliveryRepository.findDeliveringSlaWindow(from.enteredAt(), from.uid(), to, catchUpPageSize);
+    }
+
+    // 구간 쿼리의 정렬 기준과 같은 값 (배달중은 GREATEST(created_at, delivery_accept_time))
+    static LocalDateTime windowKey(DeliverySlaCandidate candidate) {
+        if (candidate.status() != OrderStatus.ORDER_DELIVERING || candidate.deliveryAcceptTime() == null
+                || candidate.deliveryAcceptTime().isBefore(candidate.createdAt())) {
+            return candidate.createdAt();
+        }
+        return candidate.deliveryAcceptTime();
+    }
+
+    // 만료된 타이머만 DB 로 확인 (만료 건수에 비례, 테이블 전체를 읽지 않음)
+    @Scheduled(fixedDelayString = "${delivery.sla.tick-ms:1000}")
+    public Mono<Void> fireExpired() {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        List<SlaTimer> expired = wheel.advance(System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return Mono.empty();
+        }
+
+        Map<String, SlaTimer> byMerchantUid = expired.stream()
+                .collect(Collectors.toMap(SlaTimer::merchantUid, Function.identity(), (t1, t2) -> t2, LinkedHashMap::new));
+        LocalDateTime detectedAt = LocalDateTime.now();
+
+        return deliveryMetrics.timed(DeliveryMetrics.DB, "sla_verify",
+                        deliveryRepository.findStatesByMerchantUidIn(byMerchantUid.keySet())
+                                .filter(state -> state.status() == byMerchantUid.get(state.merchantUid()).status())
+                                .map(state -> byMerchantUid.get(state.merchantUid()))
+                                .collectList())
+                .doOnNext(breached -> deliveryMetrics.increment(SLA, "verify", "stale", expired.size() - breached.size()))
+                .flatMapMany(Flux::fromIterable)
+                .filterWhen(this::firstAlert)
+                .collectList()
+                .flatMap(breached -> slaAlertPublisher.publishAll(breached.stream()
+                                .map(timer -> toMessage(timer, detectedAt))
+                                .toList())
+                        .doOnSuccess(ignored -> breached.forEach(timer -> {
+                            deliveryMetrics.increment(SLA, operation(timer.status()), "breached", 1);
+                            log.warn("SLA 초과 주문: {} {}", timer.merchantUid(), timer.status());
+                        }))
+                        .onErrorResume(e -> {
+                            log.error("SLA 알림 발행 실패, {} 후 다시 시도", retryDelay, e);
+                            breached.forEach(this::retryLater);
+                            return Mono.empty();
+                        }))
+                .onErrorResume(e -> {
+                    // DB 확인 실패 - 만료된 타이머를 모두 다시 등록
+                    log.error("SLA 만료 주문 확인 실패, {} 후 다시 시도", retryDelay, e);
+                    expired.forEach(this::retryLater);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // 여러 파드가 같은 주문을 알리지 않도록 먼저 기록한 파드만 알린다. Redis 장애 시에는 중복 알림 허용
+    private Mono<Boolean> firstAlert(SlaTimer timer) {
+        return Mono.fromCompletionStage(() -> redissonClient
+                        .getBucket(alertedKey(timer), StringCodec.INSTANCE)
+                        .setIfAbsentAsync("1", alertDedupTtl))
+                .doOnNext(first -> {
+                    if (!first) {
+                        deliveryMetrics.increment(SLA, operation(timer.status()), "duplicate", 1);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.warn("SLA 알림 기록 실패, 그대로 알림: {}", timer.merchantUid(), e);
+                    return Mono.just(true);
+                });
+    }
+
+    // 발행하지 못한 알림은 기록을 지우고 다시 등록 (그 사이 새 전이로 등록된 타이머가 있으면 그대로 둔다)
+    private void retryLater(SlaTimer timer) {
+        redissonClient.getBucket(alertedKey(timer), StringCodec.INSTANCE).deleteAsync();
+        wheel.scheduleIfAbsent(timer.merchantUid(), timer, System.currentTimeMillis() + retryDelay.toMillis());
+    }
+
+    private Duration timeoutOf(OrderStatus status) {
+        return switch (status) {
+            case ORDER_COOKING -> cookingTimeout;
+            case ORDER_DELIVERING -> deliveringTimeout;
+            default -> null;
+        };
+    }
+
+    private SlaTimer toTimer(DeliverySlaCandidate candidate) {
+        long enteredAt = enteredAt(candidate, System.currentTimeMillis());
+        return new SlaTimer(candidate.merchantUid(), candidate.status(), enteredAt,
+                enteredAt + timeoutOf(candidate.status()).toMillis());
+    }
+
+    // 배차 시각은 클라이언트가 보낸 값이라 생성 시각보다 이르거나 미래면 믿지 않는다 (시계/zone 차이로 마감이 밀리지 않도록)
+    static long enteredAt(DeliverySlaCandidate candidate, long nowMillis) {
+        long createdAt = toMillis(candidate.createdAt());
+        if (candidate.status() != OrderStatus.ORDER_DELIVERING || candidate.deliveryAcceptTime() == null) {
+            return createdAt;
+        }
+        long acceptedAt = toMillis(candidate.deliveryAcceptTime());
+        return acceptedAt < createdAt || acceptedAt > nowMillis ? createdAt : acceptedAt;
+    }
+
+    private static String alertedKey(SlaTimer timer) {
+        return ALERTED_KEY_PREFIX + timer.merchantUid() + ':' + timer.status();
+    }
+
+    private static String operation(OrderStatus status) {
+        return status == OrderStatus.ORDER_COOKING ? "cooking" : "delivering";
+    }
+
+    private static OrderSlaBreachedMessage toMessage(SlaTimer timer, LocalDateTime detectedAt) {
+        return OrderSlaBreachedMessage.builder()
+                .merchantUid(timer.merchantUid())
+                .status(timer.status())
+                .enteredAt(toLocalDateTime(timer.enteredAtMillis()))
+                .deadline(toLocalDateTime(timer.deadlineMillis()))
+                .detectedAt(detectedAt)
+                .build();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
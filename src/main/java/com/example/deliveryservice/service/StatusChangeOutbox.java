@@ -0,0 +1,56 @@
+package com.example.deliveryservice.service;
+
+import com.example.deliveryservice.domain.DeliveryOutbox;
+import com.example.deliveryservice.domain.DeliveryOutboxRepository;
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// status-change 이벤트를 delivery 변경과 같은 트랜잭션에 기록. 발행은 OutboxRelay 가 담당
+@Component
+@RequiredArgsConstructor
+public class StatusChangeOutbox {
+
+    private final DeliveryOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public Mono<Void> append(OrderCreatedMessage message) {
+        return appendAll(List.of(message));
+    }
+
+    public Mono<Void> appendAll(List<OrderCreatedMessage> messages) {
+        return Flux.fromIterable(messages)
+                .map(this::toOutbox)
+                .collectList()
+                .flatMapMany(outboxRepository::saveAll)
+                .then();
+    }
+
+    public OrderCreatedMessage read(DeliveryOutbox outbox) {
+        try {
+            return objectMapper.readValue(outbox.payload(), OrderCreatedMessage.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("outbox 메시지 변환 실패: " + outbox.id(), e);
+        }
+    }
+
+    private DeliveryOutbox toOutbox(OrderCreatedMessage message) {
+        try {
+            return DeliveryOutbox.builder()
+                    .merchantUid(message.getMerchantUid())
+                    .payload(objectMapper.writeValueAsString(message))
+                    .createdAt(LocalDateTime.now())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("outbox 메시지 변환 실패: " + message.getMerchantUid(), e);
+        }
+    }
+}
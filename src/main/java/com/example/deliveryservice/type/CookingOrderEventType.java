@@ -0,0 +1,7 @@
+package com.example.deliveryservice.type;
+
+public enum CookingOrderEventType {
+    SNAPSHOT,   // 구독 시점의 조리중 주문 전체
+    ADDED,      // 조리중 주문 추가
+    REMOVED,    // 조리중 상태에서 빠짐 (배차, 취소 등)
+}
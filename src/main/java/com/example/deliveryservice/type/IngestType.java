@@ -0,0 +1,6 @@
+package com.example.deliveryservice.type;
+
+public enum IngestType {
+    SAVE,       // order-cooking: 새 주문 저장
+    ROLLBACK,   // order-rollback: 주문 서비스의 상태 되돌림
+}
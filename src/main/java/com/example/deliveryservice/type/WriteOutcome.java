@@ -0,0 +1,8 @@
+package com.example.deliveryservice.type;
+
+public enum WriteOutcome {
+    INSERTED,   // 새로 저장됨
+    DUPLICATE,  // 이미 저장된 주문 (재전달 메시지)
+    APPLIED,    // 상태 변경 반영됨
+    SKIPPED,    // 조건이 맞지 않아 반영하지 않음
+}
@@ -0,0 +1,105 @@
+package com.example.deliveryservice.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 위경도를 고정 크기 격자로 나눈 공간 인덱스. 반경 검색은 반경을 덮는 칸만 훑는다.
+ * 동기화하지 않으므로 호출하는 쪽에서 락을 잡는다.
+ */
+public class GeoGrid<K, V> {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+
+    private final double cellDegrees;
+    private final Map<Long, Map<K, Point<V>>> cells = new HashMap<>();
+    private final Map<K, Long> cellOf = new HashMap<>();
+
+    public record Point<V>(double lat, double lng, V value) {
+    }
+
+    public record Hit<V>(V value, double distanceMeters) {
+    }
+
+    public GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    public void put(K key, double lat, double lng, V value) {
+        remove(key);
+        long cell = cellKey(row(lat), column(lng));
+        cells.computeIfAbsent(cell, c -> new HashMap<>()).put(key, new Point<>(lat, lng, value));
+        cellOf.put(key, cell);
+    }
+
+    public void remove(K key) {
+        Long cell = cellOf.remove(key);
+        if (cell == null) {
+            return;
+        }
+        Map<K, Point<V>> points = cells.get(cell);
+        points.remove(key);
+        if (points.isEmpty()) {
+            cells.remove(cell);
+        }
+    }
+
+    public void clear() {
+        cells.clear();
+        cellOf.clear();
+    }
+
+    public int size() {
+        return cellOf.size();
+    }
+
+    // 가까운 순으로 최대 limit 건
+    public List<Hit<V>> nearby(double lat, double lng, double radiusMeters, int limit) {
+        double latSpan = radiusMeters / METERS_PER_DEGREE;
+        // 고위도에서 경도 1도의 길이가 줄어드는 만큼 더 넓게 훑는다
+        double lngSpan = radiusMeters / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+
+        List<Hit<V>> hits = new ArrayList<>();
+        for (long row = row(lat - latSpan); row <= row(lat + latSpan); row++) {
+            for (long column = column(lng - lngSpan); column <= column(lng + lngSpan); column++) {
+                Map<K, Point<V>> points = cells.get(cellKey(row, column));
+                if (points == null) {
+                    continue;
+                }
+                for (Point<V> point : points.values()) {
+                    double distance = distanceMeters(lat, lng, point.lat(), point.lng());
+                    if (distance <= radiusMeters) {
+                        hits.add(new Hit<>(point.value(), distance));
+                    }
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceMeters));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    // 하버사인 거리
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private long row(double lat) {
+        return (long) Math.floor(lat / cellDegrees);
+    }
+
+    private long column(double lng) {
+        return (long) Math.floor(lng / cellDegrees);
+    }
+
+    private static long cellKey(long row, long column) {
+        return (row << 32) ^ (column & 0xffffffffL);
+    }
+}
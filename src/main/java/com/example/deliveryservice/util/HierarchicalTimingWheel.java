@@ -0,0 +1,214 @@
+package com.example.deliveryservice.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 키별 타이머를 모아 두는 계층형 타이밍 휠. 등록/취소는 O(1), advance 는 지난 tick 수 + 만료된 타이머 수에 비례한다.
+ * 0단계 휠은 tick 간격 슬롯 wheelSize 개, 그보다 먼 마감은 tick x wheelSize 간격의 상위 휠에 두었다가
+ * 시계가 그 슬롯에 도달하면 아래 단계로 내려보낸다. 마감 시각은 tick 단위로 내림해 판단하므로 최대 tick 만큼 일찍 만료될 수 있다.
+ * 스레드 안전하며, 만료 콜백은 호출하지 않고 advance 의 반환값으로 돌려준다.
+ */
+public class HierarchicalTimingWheel<K, V> {
+
+    private final long tickMillis;
+    private final Map<K, Entry<K, V>> entries = new HashMap<>();
+    private final List<Entry<K, V>> overdue = new ArrayList<>();
+    private final Level<K, V> root;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMillis > 0, wheelSize > 1 이어야 합니다.");
+        }
+        this.tickMillis = tickMillis;
+        this.root = new Level<>(tickMillis, wheelSize, startMillis - startMillis % tickMillis);
+    }
+
+    // 같은 키가 있으면 새 마감으로 바꾼다
+    public synchronized void schedule(K key, V value, long deadlineMillis) {
+        cancel(key);
+        Entry<K, V> entry = new Entry<>(key, value, deadlineMillis);
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    // 이미 등록된 키는 그대로 둔다 (재기동 시 DB 에서 다시 채울 때 그 사이 등록된 최신 타이머 유지)
+    public synchronized boolean scheduleIfAbsent(K key, V value, long deadlineMillis) {
+        if (entries.containsKey(key)) {
+            return false;
+        }
+        schedule(key, value, deadlineMillis);
+        return true;
+    }
+
+    public synchronized boolean cancel(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.bucket != null) {
+            entry.bucket.remove(entry);
+        } else {
+            overdue.remove(entry);
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // nowMillis 까지 시계를 돌리고 만료된 타이머 값을 돌려준다
+    public synchronized List<V> advance(long nowMillis) {
+        List<V> expired = new ArrayList<>();
+        drainOverdue(expired);
+        while (root.currentTime + tickMillis <= nowMillis) {
+            root.tick(this);
+            drainOverdue(expired);
+        }
+        return expired;
+    }
+
+    private void drainOverdue(List<V> expired) {
+        for (Entry<K, V> entry : overdue) {
+            entries.remove(entry.key);
+            expired.add(entry.value);
+        }
+        overdue.clear();
+    }
+
+    // 들어갈 수 있는 가장 낮은 단계에 둔다. 현재 tick 안이거나 지난 마감은 다음 advance 에서 만료
+    private void place(Entry<K, V> entry) {
+        if (!root.add(entry)) {
+            entry.bucket = null;
+            overdue.add(entry);
+        }
+    }
+
+    private static final class Level<K, V> {
+        private final long tick;
+        private final int size;
+        private final long interval;
+        private final Bucket<K, V>[] buckets;
+        private long currentTime;
+        private Level<K, V> overflow;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tick, int size, long currentTime) {
+            this.tick = tick;
+            this.size = size;
+            this.interval = tick * size;
+            this.currentTime = currentTime;
+            this.buckets = new Bucket[size];
+            for (int i = 0; i < size; i++) {
+                buckets[i] = new Bucket<>();
+            }
+        }
+
+        private boolean add(Entry<K, V> entry) {
+            if (entry.deadline < currentTime + tick) {
+                return false;
+            }
+            if (entry.deadline < currentTime + interval) {
+                buckets[(int) ((entry.deadline / tick) % size)].add(entry);
+                return true;
+            }
+            return overflow().add(entry);
+        }
+
+        private Level<K, V> overflow() {
+            if (overflow == null) {
+                overflow = new Level<>(interval, size, currentTime - currentTime % interval);
+            }
+            return overflow;
+        }
+
+        // 0단계 시계를 한 tick 진행. 상위 단계 시계가 넘어가면 그 슬롯을 먼저 아래로 내린 뒤 현재 슬롯을 비운다
+        private void tick(HierarchicalTimingWheel<K, V> wheel) {
+            currentTime += tick;
+            if (overflow != null) {
+                overflow.advanceTo(currentTime, wheel);
+            }
+            wheel.redistribute(buckets[(int) ((currentTime / tick) % size)]);
+        }
+
+        private void advanceTo(long time, HierarchicalTimingWheel<K, V> wheel) {
+            long rounded = time - time % tick;
+            if (rounded == currentTime) {
+                return;
+            }
+            currentTime = rounded;
+            if (overflow != null) {
+                overflow.advanceTo(time, wheel);
+            }
+            wheel.redistribute(buckets[(int) ((currentTime / tick) % size)]);
+        }
+    }
+
+    private void redistribute(Bucket<K, V> bucket) {
+        for (Entry<K, V> entry : bucket.drain()) {
+            place(entry);
+        }
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long deadline;
+        private Bucket<K, V> bucket;
+        private Entry<K, V> prev;
+        private Entry<K, V> next;
+
+        private Entry(K key, V value, long deadline) {
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+
+    // 이중 연결 리스트 → 취소 시 O(1) 제거
+    private static final class Bucket<K, V> {
+        private Entry<K, V> head;
+
+        private void add(Entry<K, V> entry) {
+            entry.bucket = this;
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        private void remove(Entry<K, V> entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.bucket = null;
+            entry.prev = null;
+            entry.next = null;
+        }
+
+        private List<Entry<K, V>> drain() {
+            List<Entry<K, V>> drained = new ArrayList<>();
+            Entry<K, V> entry = head;
+            while (entry != null) {
+                Entry<K, V> next = entry.next;
+                entry.bucket = null;
+                entry.prev = null;
+                entry.next = null;
+                drained.add(entry);
+                entry = next;
+            }
+            head = null;
+            return drained;
+        }
+    }
+}
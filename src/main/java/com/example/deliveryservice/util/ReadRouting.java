@@ -0,0 +1,46 @@
+package com.example.deliveryservice.util;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * 조회를 어느 DB 로 보낼지 Reactor Context 에 표시한다. 표시가 없으면 primary.
+ * 서비스의 조회 메서드는 preferReplica 로 감싸고, 바깥(요청 필터 등)에서 primary 로 감싸면 그쪽이 우선한다.
+ */
+public final class ReadRouting {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final Object KEY = ReadRouting.class;
+
+    private ReadRouting() {
+    }
+
+    public static <T> Mono<T> preferReplica(Mono<T> source) {
+        return source.contextWrite(ReadRouting::replicaUnlessSet);
+    }
+
+    public static <T> Flux<T> preferReplica(Flux<T> source) {
+        return source.contextWrite(ReadRouting::replicaUnlessSet);
+    }
+
+    // 방금 쓴 내용을 바로 읽어야 하는 호출 (read-your-writes)
+    public static <T> Mono<T> primary(Mono<T> source) {
+        return source.contextWrite(context -> context.put(KEY, Target.PRIMARY));
+    }
+
+    public static <T> Flux<T> primary(Flux<T> source) {
+        return source.contextWrite(context -> context.put(KEY, Target.PRIMARY));
+    }
+
+    public static Target target(ContextView context) {
+        return context.getOrDefault(KEY, Target.PRIMARY);
+    }
+
+    // contextWrite 는 안쪽(소스에 가까운 쪽)이 우선이므로, 바깥에서 이미 정한 값은 덮어쓰지 않는다
+    private static Context replicaUnlessSet(Context context) {
+        return context.hasKey(KEY) ? context : context.put(KEY, Target.REPLICA);
+    }
+}
@@ -0,0 +1,14 @@
+-- 기존에 수동으로 만든 테이블이 있으면 그대로 사용 (baseline-on-migrate)
+CREATE TABLE IF NOT EXISTS `delivery` (
+    `uid`                  INT          NOT NULL AUTO_INCREMENT,
+    `rider_user_uid`       INT          NULL,
+    `rider_social_uid`     INT          NULL,
+    `merchant_uid`         VARCHAR(100) NOT NULL,
+    `status`               VARCHAR(30)  NOT NULL,
+    `address_start`        VARCHAR(255) NULL,
+    `address_destination`  VARCHAR(255) NULL,
+    `delivery_accept_time` DATETIME(6)  NULL,
+    `delivered_time`       DATETIME(6)  NULL,
+    `version`              INT          NOT NULL DEFAULT 0,
+    PRIMARY KEY (`uid`)
+);
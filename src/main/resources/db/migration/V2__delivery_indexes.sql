@@ -0,0 +1,34 @@
+-- DeliveryRepository 쿼리별 보조 인덱스. InnoDB 보조 인덱스에는 PK(uid) 가 포함되므로 uid 정렬/커서도 인덱스로 처리된다
+-- 커버링 인덱스는 아니다: 목록 쿼리는 행 전체(또는 여러 컬럼)가 필요하므로 인덱스로 범위를 좁힌 뒤 PK 로 행을 읽는다
+-- 쿼리별 실행 계획은 DeliveryQueryPlanTest 에서 확인
+--
+-- 기동 중에 큰 테이블을 ALTER 하지 않는다. 인덱스가 이미 있으면(수동 적용 포함) 건너뛰고,
+-- 행이 10만 건을 넘으면 만들지 않는다 → 운영 테이블은 sql/delivery-indexes-online.sql 을 배포 전에 따로 실행
+SET @delivery_small = (SELECT COUNT(*) FROM (SELECT 1 FROM `delivery` LIMIT 100001) t) <= 100000;
+
+-- getCookingOrders, findCookingPage, findSlaCandidates: status = ? AND uid > ? ORDER BY uid
+SET @ddl = IF(@delivery_small AND NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND index_name = 'idx_delivery_status_uid'),
+              'CREATE INDEX `idx_delivery_status_uid` ON `delivery` (`status`, `uid`) ALGORITHM=INPLACE LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- getDeliveringByUserUid, findDeliveringPageByUserUid: rider_user_uid = ? AND status = ? AND uid > ? ORDER BY uid
+SET @ddl = IF(@delivery_small AND NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND index_name = 'idx_delivery_rider_user_status'),
+              'CREATE INDEX `idx_delivery_rider_user_status` ON `delivery` (`rider_user_uid`, `status`, `uid`) ALGORITHM=INPLACE LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- getDeliveringBySocialUid, findDeliveringPageBySocialUid: rider_social_uid = ? AND status = ? AND uid > ? ORDER BY uid
+SET @ddl = IF(@delivery_small AND NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND index_name = 'idx_delivery_rider_social_status'),
+              'CREATE INDEX `idx_delivery_rider_social_status` ON `delivery` (`rider_social_uid`, `status`, `uid`) ALGORITHM=INPLACE LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,8 @@
+-- status-change 이벤트 outbox. delivery 변경과 같은 트랜잭션에서 INSERT, OutboxRelay 가 발행 후 삭제
+CREATE TABLE IF NOT EXISTS `delivery_outbox` (
+    `id`           BIGINT       NOT NULL AUTO_INCREMENT,
+    `merchant_uid` VARCHAR(100) NOT NULL,
+    `payload`      TEXT         NOT NULL,
+    `created_at`   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (`id`) -- OutboxRelay 는 id 순서로만 읽고 지운다
+);
@@ -0,0 +1,17 @@
+-- 가게/배달지 좌표 (주문 서비스 DeliveryAddressMessage 의 addressStartLat/Lan, addressDestinationLat/Lan)
+--
+-- V2 와 같이 컬럼이 이미 있으면(sql/delivery-indexes-online.sql 로 적용 포함) 건너뛰고, 10만 건이 넘으면 추가하지 않는다
+-- (건너뛰면 DeliverySchemaCheck 가 기동을 막는다 → 운영 테이블은 sql/delivery-indexes-online.sql 을 배포 전에 실행)
+SET @delivery_small = (SELECT COUNT(*) FROM (SELECT 1 FROM `delivery` LIMIT 100001) t) <= 100000;
+
+SET @ddl = IF(@delivery_small AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND column_name = 'address_start_lat'),
+              'ALTER TABLE `delivery`
+                   ADD COLUMN `address_start_lat`       DOUBLE NULL AFTER `address_destination`,
+                   ADD COLUMN `address_start_lan`       DOUBLE NULL AFTER `address_start_lat`,
+                   ADD COLUMN `address_destination_lat` DOUBLE NULL AFTER `address_start_lan`,
+                   ADD COLUMN `address_destination_lan` DOUBLE NULL AFTER `address_destination_lat`',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,15 @@
+-- 조리중 진입 시각. SLA 감시 타이머를 재기동 후 DB 에서 다시 만들 때 사용 (배달중은 delivery_accept_time)
+-- 기존 행은 마이그레이션 시각으로 채워진다
+--
+-- V2 와 같이 컬럼이 이미 있으면(sql/delivery-indexes-online.sql 로 적용 포함) 건너뛰고, 10만 건이 넘으면 추가하지 않는다
+-- (건너뛰면 DeliverySchemaCheck 가 기동을 막는다 → 운영 테이블은 sql/delivery-indexes-online.sql 을 배포 전에 실행)
+SET @delivery_small = (SELECT COUNT(*) FROM (SELECT 1 FROM `delivery` LIMIT 100001) t) <= 100000;
+
+SET @ddl = IF(@delivery_small AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND column_name = 'created_at'),
+              'ALTER TABLE `delivery`
+                   ADD COLUMN `created_at` DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) AFTER `delivered_time`',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,23 @@
+-- findCookingByMerchantUid, findDeliveringByMerchantUid, findAllByMerchantUidIn, findStatesByMerchantUidIn,
+-- bulkUpsert(ON DUPLICATE KEY), bulkUpdateStatus, claimCooking, completeDelivering: merchant_uid 는 주문당 한 행
+--
+-- V2 와 같이 키가 이미 있으면(sql/delivery-indexes-online.sql 로 적용 포함) 건너뛰고, 10만 건이 넘으면 만들지 않는다
+SET @delivery_small = (SELECT COUNT(*) FROM (SELECT 1 FROM `delivery` LIMIT 100001) t) <= 100000;
+SET @missing = NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                   WHERE table_schema = DATABASE() AND table_name = 'delivery' AND index_name = 'uk_delivery_merchant_uid');
+
+-- 키가 없던 동안 재전송으로 생긴 중복 행 정리: 주문별로 가장 많이 진행된 행(version 최대, 같으면 uid 최소)만 남긴다
+SET @ddl = IF(@delivery_small AND @missing,
+              'DELETE d FROM `delivery` d JOIN `delivery` keep_row ON keep_row.merchant_uid = d.merchant_uid
+                 AND (keep_row.version > d.version OR (keep_row.version = d.version AND keep_row.uid < d.uid))',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(@delivery_small AND @missing,
+              'ALTER TABLE `delivery` ADD UNIQUE KEY `uk_delivery_merchant_uid` (`merchant_uid`), ALGORITHM=INPLACE, LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
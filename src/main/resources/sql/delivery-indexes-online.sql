@@ -0,0 +1,73 @@
+-- 운영 테이블(10만 건 초과)용 컬럼/인덱스 적용. Flyway V2/V4/V5/V6 는 큰 테이블을 건드리지 않으므로 배포 전에 DBA 가 직접 실행한다
+-- 여러 번 실행해도 된다 (없는 컬럼/인덱스만 만든다). 모두 ALGORITHM=INPLACE, LOCK=NONE 이라 읽기/쓰기는 막지 않는다
+-- V4/V5 컬럼이나 uk_delivery_merchant_uid 가 없으면 앱(DeliverySchemaCheck)이 기동하지 않으므로 큰 테이블은 배포 전에 반드시 적용한다
+-- 복제 지연이 걱정되면 같은 DDL 을 pt-online-schema-change / gh-ost 로 실행해도 된다
+
+-- 0) V4/V5 컬럼 (좌표, created_at). 컬럼 추가는 테이블을 온라인으로 다시 만든다
+SET @ddl = IF(NOT EXISTS (SELECT 1 FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND column_name = 'address_start_lat'),
+              'ALTER TABLE `delivery`
+                   ADD COLUMN `address_start_lat`       DOUBLE NULL AFTER `address_destination`,
+                   ADD COLUMN `address_start_lan`       DOUBLE NULL AFTER `address_start_lat`,
+                   ADD COLUMN `address_destination_lat` DOUBLE NULL AFTER `address_start_lan`,
+                   ADD COLUMN `address_destination_lan` DOUBLE NULL AFTER `address_destination_lat`,
+                   ALGORITHM=INPLACE, LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(NOT EXISTS (SELECT 1 FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND column_name = 'created_at'),
+              'ALTER TABLE `delivery`
+                   ADD COLUMN `created_at` DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) AFTER `delivered_time`,
+                   ALGORITHM=INPLACE, LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 1) merchant_uid 중복 확인. 결과가 있으면 2) 로 정리한 뒤 진행
+SELECT merchant_uid, COUNT(*) AS cnt
+FROM `delivery`
+GROUP BY merchant_uid
+HAVING cnt > 1
+LIMIT 100;
+
+-- 2) 중복 정리: 주문별로 가장 많이 진행된 행(version 최대, 같으면 uid 최소)만 남긴다. 1) 이 비어 있으면 건너뛴다
+DELETE d FROM `delivery` d
+JOIN `delivery` keep_row ON keep_row.merchant_uid = d.merchant_uid
+    AND (keep_row.version > d.version OR (keep_row.version = d.version AND keep_row.uid < d.uid));
+
+-- 3) 없는 인덱스만 추가
+SET @ddl = IF(NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND index_name = 'uk_delivery_merchant_uid'),
+              'ALTER TABLE `delivery` ADD UNIQUE KEY `uk_delivery_merchant_uid` (`merchant_uid`), ALGORITHM=INPLACE, LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND index_name = 'idx_delivery_status_uid'),
+              'CREATE INDEX `idx_delivery_status_uid` ON `delivery` (`status`, `uid`) ALGORITHM=INPLACE LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND index_name = 'idx_delivery_rider_user_status'),
+              'CREATE INDEX `idx_delivery_rider_user_status` ON `delivery` (`rider_user_uid`, `status`, `uid`) ALGORITHM=INPLACE LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                  WHERE table_schema = DATABASE() AND table_name = 'delivery' AND index_name = 'idx_delivery_rider_social_status'),
+              'CREATE INDEX `idx_delivery_rider_social_status` ON `delivery` (`rider_social_uid`, `status`, `uid`) ALGORITHM=INPLACE LOCK=NONE',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
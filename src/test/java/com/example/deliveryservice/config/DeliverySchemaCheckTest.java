@@ -0,0 +1,48 @@
+package com.example.deliveryservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeliverySchemaCheckTest {
+
+    private static final Set<String> ALL_COLUMNS = Set.copyOf(DeliverySchemaCheck.REQUIRED_COLUMNS);
+
+    @Test
+    void passesWhenAllIndexesPresent() {
+        assertThatCode(() -> DeliverySchemaCheck.verify(Set.copyOf(DeliverySchemaCheck.REQUIRED_INDEXES), ALL_COLUMNS))
+                .doesNotThrowAnyException();
+    }
+
+    // 조회용 인덱스가 빠진 것은 느려질 뿐이라 기동은 계속한다
+    @Test
+    void missingSecondaryIndexOnlyLogs() {
+        assertThatCode(() -> DeliverySchemaCheck.verify(Set.of(DeliverySchemaCheck.MERCHANT_UID_UNIQUE), ALL_COLUMNS))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void missingMerchantUidUniqueKeyFailsStartup() {
+        Set<String> present = new HashSet<>(DeliverySchemaCheck.REQUIRED_INDEXES);
+        present.remove(DeliverySchemaCheck.MERCHANT_UID_UNIQUE);
+
+        assertThatThrownBy(() -> DeliverySchemaCheck.verify(present, ALL_COLUMNS))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(DeliverySchemaCheck.MERCHANT_UID_UNIQUE);
+    }
+
+    // V4/V5 를 큰 테이블이라 건너뛰었으면 저장이 모두 실패하므로 기동하지 않는다
+    @Test
+    void missingV5ColumnFailsStartup() {
+        Set<String> columns = new HashSet<>(DeliverySchemaCheck.REQUIRED_COLUMNS);
+        columns.remove("created_at");
+
+        assertThatThrownBy(() -> DeliverySchemaCheck.verify(Set.copyOf(DeliverySchemaCheck.REQUIRED_INDEXES), columns))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("created_at");
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.deliveryservice.config;
+
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.util.ReadRouting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ValidationDepth;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionContextManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingConnectionFactoryTest {
+
+    @Mock
+    private ConnectionPool primary;
+    @Mock
+    private ConnectionPool replica;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaConnection;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReplicaRoutingConnectionFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = routing(replica);
+    }
+
+    // 표시 없는 호출은 replica 가 정상이어도 primary
+    @Test
+    void unmarkedCallGoesToPrimary() {
+        markReplicaHealthy();
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+
+        assertThat(factory.create().block()).isSameAs(primaryConnection);
+        verify(replica, times(1)).create(); // 헬스 체크 1회뿐
+    }
+
+    @Test
+    void markedReadGoesToReplica() {
+        markReplicaHealthy();
+
+        assertThat(ReadRouting.preferReplica(factory.create()).block()).isSameAs(replicaConnection);
+        verify(primary, never()).create();
+    }
+
+    // 바깥에서 primary 로 감싸면 (요청 헤더 등) 안쪽 preferReplica 보다 우선
+    @Test
+    void outerPrimaryOverridesMarkedRead() {
+        markReplicaHealthy();
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+
+        assertThat(ReadRouting.primary(ReadRouting.preferReplica(factory.create())).block()).isSameAs(primaryConnection);
+    }
+
+    // 트랜잭션 안에서는 조회 표시가 있어도 primary
+    @Test
+    void markedReadInsideTransactionGoesToPrimary() {
+        markReplicaHealthy();
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+
+        Connection connection = ReadRouting.preferReplica(factory.create())
+                .contextWrite(TransactionContextManager.getOrCreateContext())
+                .contextWrite(TransactionContextManager.getOrCreateContextHolder())
+                .block();
+
+        assertThat(connection).isSameAs(primaryConnection);
+        verify(replica, times(1)).create();
+    }
+
+    // 첫 헬스 체크 전에는 primary
+    @Test
+    void markedReadBeforeHealthCheckGoesToPrimary() {
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+
+        assertThat(ReadRouting.preferReplica(factory.create()).block()).isSameAs(primaryConnection);
+        verify(replica, never()).create();
+    }
+
+    // 헬스 체크가 실패하면 조회도 primary 로 돌리고, 다시 통과하면 replica 로 돌아온다
+    @Test
+    void failedHealthCheckFallsBackToPrimary() {
+        markReplicaHealthy();
+        when(replica.create()).thenReturn(Mono.error(new IllegalStateException("replica down")));
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+
+        factory.checkReplica().block();
+
+        assertThat(ReadRouting.preferReplica(factory.create()).block()).isSameAs(primaryConnection);
+        verify(replica, times(2)).create(); // 헬스 체크 2회, 조회는 replica 를 시도하지 않음
+        assertThat(registry.get("delivery.db.replica.healthy").gauge().value()).isZero();
+
+        markReplicaHealthy();
+        assertThat(ReadRouting.preferReplica(factory.create()).block()).isSameAs(replicaConnection);
+    }
+
+    // 검증 응답이 false 여도 비정상으로 본다
+    @Test
+    void invalidReplicaIsUnhealthy() {
+        when(replica.create()).thenReturn(Mono.just(replicaConnection));
+        when(replicaConnection.validate(ValidationDepth.REMOTE)).thenReturn(Mono.just(false));
+        when(replicaConnection.close()).thenReturn(Mono.empty());
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+
+        factory.checkReplica().block();
+
+        assertThat(ReadRouting.preferReplica(factory.create()).block()).isSameAs(primaryConnection);
+    }
+
+    // 정상으로 보였던 replica 의 커넥션 획득이 실패하면 그 호출은 primary 로 넘기고, 이후 조회도 primary
+    @Test
+    void replicaConnectFailureFallsBackToPrimary() {
+        markReplicaHealthy();
+        when(replica.create()).thenReturn(Mono.error(new IllegalStateException("replica down")));
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+
+        assertThat(ReadRouting.preferReplica(factory.create()).block()).isSameAs(primaryConnection);
+        assertThat(ReadRouting.preferReplica(factory.create()).block()).isSameAs(primaryConnection);
+
+        verify(replica, times(2)).create(); // 헬스 체크 1회 + 실패한 조회 1회
+        assertThat(registry.get("delivery.db.route").tag("outcome", "fallback").counter().count()).isEqualTo(1);
+    }
+
+    // replica 가 없으면 표시와 관계없이 primary, 헬스 체크도 하지 않는다
+    @Test
+    void withoutReplicaEverythingGoesToPrimary() {
+        ReplicaRoutingConnectionFactory primaryOnly = routing(null);
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+
+        primaryOnly.checkReplica().block();
+
+        assertThat(ReadRouting.preferReplica(primaryOnly.create()).block()).isSameAs(primaryConnection);
+    }
+
+    private ReplicaRoutingConnectionFactory routing(ConnectionPool replicaPool) {
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(primary, replicaPool,
+                Duration.ofSeconds(1), new DeliveryMetrics(registry));
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private void markReplicaHealthy() {
+        when(replica.create()).thenReturn(Mono.just(replicaConnection));
+        when(replicaConnection.validate(ValidationDepth.REMOTE)).thenReturn(Mono.just(true));
+        when(replicaConnection.close()).thenReturn(Mono.empty());
+        factory.checkReplica().block();
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.deliveryservice.controller;
+
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RFuture;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisConnectionException;
+import org.redisson.misc.CompletableFutureWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlTest {
+
+    private static final String GLOBAL_KEY = "ratelimit:delivery:global:500/1000";
+    private static final String RIDER_KEY = "ratelimit:delivery:user:7:5/1000";
+    private static final Duration KEY_TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RRateLimiter global;
+    @Mock
+    private RRateLimiter rider;
+
+    private AdmissionControl admissionControl;
+    private final AtomicInteger actions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        admissionControl = new AdmissionControl(redissonClient, new DeliveryMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(admissionControl, "enabled", true);
+        ReflectionTestUtils.setField(admissionControl, "maxInFlight", 64);
+        ReflectionTestUtils.setField(admissionControl, "riderRate", 5L);
+        ReflectionTestUtils.setField(admissionControl, "riderInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(admissionControl, "keyTtl", KEY_TTL);
+        ReflectionTestUtils.setField(admissionControl, "globalRate", 500L);
+        ReflectionTestUtils.setField(admissionControl, "globalInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(admissionControl, "redisTimeout", Duration.ofMillis(100));
+        admissionControl.init();
+    }
+
+    // 라이더 → 전체 순으로 토큰을 가져가고, limiter 설정은 키마다 한 번만 쓴다 (같은 라이더가 여러 번 있어도 토큰 1개)
+    @Test
+    void admittedRequestTakesRiderThenGlobalToken() {
+        when(redissonClient.getRateLimiter(GLOBAL_KEY)).thenReturn(global);
+        when(redissonClient.getRateLimiter(RIDER_KEY)).thenReturn(rider);
+        configurable(global);
+        configurable(rider);
+        when(global.availablePermitsAsync()).thenReturn(done(10L));
+        when(rider.tryAcquireAsync(1)).thenReturn(done(true));
+        when(global.tryAcquireAsync(1)).thenReturn(done(true));
+
+        assertThat(guard(List.of("user:7", "user:7")).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(guard(List.of("user:7")).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(actions).hasValue(2);
+        verify(rider, times(2)).tryAcquireAsync(1);
+        verify(global, times(2)).tryAcquireAsync(1);
+        verify(global).trySetRateAsync(RateType.OVERALL, 500, 1000, RateIntervalUnit.MILLISECONDS);
+        verify(rider).trySetRateAsync(RateType.OVERALL, 5, 1000, RateIntervalUnit.MILLISECONDS);
+        verify(rider).expireAsync(KEY_TTL);
+        verify(redissonClient).getRateLimiter(RIDER_KEY);
+    }
+
+    // 라이더 버킷이 비면 처리하지 않고 429 + 토큰 하나가 다시 차는 시간, 전체 토큰은 쓰지 않는다
+    @Test
+    void riderLimitedIsRejectedWithRetryAfter() {
+        ReflectionTestUtils.setField(admissionControl, "riderRate", 1L);
+        ReflectionTestUtils.setField(admissionControl, "riderInterval", Duration.ofSeconds(90));
+        when(redissonClient.getRateLimiter(GLOBAL_KEY)).thenReturn(global);
+        when(redissonClient.getRateLimiter("ratelimit:delivery:user:7:1/90000")).thenReturn(rider);
+        configurable(global);
+        configurable(rider);
+        when(global.availablePermitsAsync()).thenReturn(done(10L));
+        when(rider.tryAcquireAsync(1)).thenReturn(done(false));
+
+        ResponseEntity<String> response = guard(List.of("user:7"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("90");
+        assertThat(response.getBody()).isEqualTo("rejected");
+        assertThat(actions).hasValue(0);
+        verify(global, never()).tryAcquireAsync(anyLong());
+    }
+
+    // 전체 버킷에 남은 토큰이 없으면 라이더 토큰을 건드리지 않고 거절
+    @Test
+    void globalLimitedIsRejectedBeforeRiderBucket() {
+        when(redissonClient.getRateLimiter(GLOBAL_KEY)).thenReturn(global);
+        configurable(global);
+        when(global.availablePermitsAsync()).thenReturn(done(0L));
+
+        ResponseEntity<String> response = guard(List.of("user:7"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(actions).hasValue(0);
+        verify(redissonClient, never()).getRateLimiter(startsWith("ratelimit:delivery:user:"));
+    }
+
+    // Redis 가 redis-timeout 안에 답하지 않으면 통과
+    @Test
+    void redisTimeoutFailsOpen() {
+        when(redissonClient.getRateLimiter(GLOBAL_KEY)).thenReturn(global);
+        configurable(global);
+        when(global.availablePermitsAsync()).thenReturn(new CompletableFutureWrapper<Long>(new CompletableFuture<Long>()));
+
+        ResponseEntity<String> response = guard(List.of("user:7"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(actions).hasValue(1);
+    }
+
+    // Redis 오류도 통과, 설정을 쓰지 못한 limiter 는 다음 요청에서 다시 설정한다
+    @Test
+    void redisErrorFailsOpenAndRetriesConfiguration() {
+        when(redissonClient.getRateLimiter(GLOBAL_KEY)).thenReturn(global);
+        when(global.trySetRateAsync(any(), anyLong(), anyLong(), any()))
+                .thenReturn(new CompletableFutureWrapper<Boolean>(new RedisConnectionException("down")));
+
+        assertThat(guard(List.of("user:7")).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(guard(List.of("user:7")).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(actions).hasValue(2);
+        verify(global, times(2)).trySetRateAsync(RateType.OVERALL, 500, 1000, RateIntervalUnit.MILLISECONDS);
+    }
+
+    // 파드별 동시 처리 상한을 넘으면 Redis 를 보지 않고 429, 앞 요청이 끝나면 다시 받는다
+    @Test
+    void inFlightCapRejectsUntilRunningRequestFinishes() {
+        ReflectionTestUtils.setField(admissionControl, "maxInFlight", 1);
+        when(redissonClient.getRateLimiter(GLOBAL_KEY)).thenReturn(global);
+        when(redissonClient.getRateLimiter(RIDER_KEY)).thenReturn(rider);
+        configurable(global);
+        configurable(rider);
+        when(global.availablePermitsAsync()).thenReturn(done(10L));
+        when(rider.tryAcquireAsync(1)).thenReturn(done(true));
+        when(global.tryAcquireAsync(1)).thenReturn(done(true));
+        Sinks.One<ResponseEntity<String>> running = Sinks.one();
+        Disposable first = admissionControl.guard("start", List.of("user:7"), running::asMono, () -> "rejected").subscribe();
+
+        ResponseEntity<String> rejected = guard(List.of("user:7"));
+
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        verify(rider, times(1)).tryAcquireAsync(1);
+
+        running.tryEmitValue(ResponseEntity.ok("first"));
+        assertThat(first.isDisposed()).isTrue();
+        assertThat(guard(List.of("user:7")).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void disabledRunsActionWithoutRedis() {
+        ReflectionTestUtils.setField(admissionControl, "enabled", false);
+
+        assertThat(guard(List.of("user:7")).getStatusCode()).isEqualTo(HttpStatus.OK);
+        verifyNoInteractions(redissonClient);
+    }
+
+    // 토큰 하나가 다시 차는 시간을 초 단위로 올림, 최소 1초
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertThat(retryAfter(3, Duration.ofSeconds(10))).isEqualTo(Duration.ofSeconds(4));
+        assertThat(retryAfter(500, Duration.ofSeconds(1))).isEqualTo(Duration.ofSeconds(1));
+        assertThat(retryAfter(1, Duration.ofSeconds(90))).isEqualTo(Duration.ofSeconds(90));
+        assertThat(retryAfter(0, Duration.ofSeconds(2))).isEqualTo(Duration.ofSeconds(2));
+    }
+
+    private ResponseEntity<String> guard(List<String> subjects) {
+        Supplier<Mono<ResponseEntity<String>>> action = () -> {
+            actions.incrementAndGet();
+            return Mono.just(ResponseEntity.ok("ok"));
+        };
+        return admissionControl.guard("start", subjects, action, () -> "rejected").block();
+    }
+
+    private static void configurable(RRateLimiter limiter) {
+        when(limiter.trySetRateAsync(any(), anyLong(), anyLong(), any())).thenReturn(done(true));
+        when(limiter.expireAsync(KEY_TTL)).thenReturn(done(true));
+    }
+
+    private static Duration retryAfter(long rate, Duration interval) {
+        return ReflectionTestUtils.invokeMethod(AdmissionControl.class, "retryAfter", rate, interval);
+    }
+
+    private static <V> RFuture<V> done(V value) {
+        return new CompletableFutureWrapper<>(value);
+    }
+}
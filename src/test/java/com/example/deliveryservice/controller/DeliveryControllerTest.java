@@ -0,0 +1,128 @@
+package com.example.deliveryservice.controller;
+
+import com.example.deliveryservice.dto.DeliveryBatchResponseDTO;
+import com.example.deliveryservice.dto.DeliveryBatchResultDTO;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.service.DeliveryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryControllerTest {
+
+    @Mock
+    private DeliveryService deliveryService;
+    @Mock
+    private AdmissionControl admissionControl;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToController(
+                        new DeliveryController(deliveryService, new DeliveryMetrics(new SimpleMeterRegistry()), admissionControl))
+                .build();
+    }
+
+    @Test
+    void emptyBatchIsBadRequest() {
+        postBatch("/deliveries/start/batch", "[]").expectStatus().isBadRequest();
+        verifyNoInteractions(deliveryService, admissionControl);
+    }
+
+    @Test
+    void oversizedBatchIsBadRequest() {
+        String body = IntStream.rangeClosed(1, 21)
+                .mapToObj(i -> "{\"merchantUid\":\"m-" + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        postBatch("/deliveries/start/batch", body).expectStatus().isBadRequest();
+        verifyNoInteractions(deliveryService, admissionControl);
+    }
+
+    @Test
+    void nullElementIsBadRequest() {
+        postBatch("/deliveries/complete/batch", "[{\"merchantUid\":\"m-1\"}, null]").expectStatus().isBadRequest();
+        verifyNoInteractions(deliveryService, admissionControl);
+    }
+
+    @Test
+    void blankMerchantUidIsBadRequest() {
+        postBatch("/deliveries/complete/batch", "[{\"merchantUid\":\" \"}]").expectStatus().isBadRequest();
+        postBatch("/deliveries/start/batch", "[{\"riderUserUid\":7}]").expectStatus().isBadRequest();
+        verifyNoInteractions(deliveryService, admissionControl);
+    }
+
+    // 수용 제어에 걸리면 429 와 함께 요청한 주문마다 실패 결과를 돌려준다 (빈 본문이 아님)
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectedBatchMarksEveryItemRejected() {
+        when(admissionControl.guard(eq("start_batch"), anyList(), any(), any())).thenAnswer(invocation ->
+                Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(((Supplier<Object>) invocation.getArgument(3)).get())));
+
+        postBatch("/deliveries/start/batch", "[{\"merchantUid\":\"m-1\",\"riderUserUid\":7},{\"merchantUid\":\"m-2\",\"riderUserUid\":7}]")
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+                .expectBody()
+                .jsonPath("$.successCount").isEqualTo(0)
+                .jsonPath("$.failureCount").isEqualTo(2)
+                .jsonPath("$.results[0].merchantUid").isEqualTo("m-1")
+                .jsonPath("$.results[1].merchantUid").isEqualTo("m-2")
+                .jsonPath("$.results[0].message").isEqualTo("요청이 많아 잠시 후 다시 시도해 주세요.");
+        verifyNoInteractions(deliveryService);
+    }
+
+    // 일부 성공도 200, 주문별 결과는 서비스가 만든 요청 순서 그대로
+    @Test
+    @SuppressWarnings("unchecked")
+    void admittedBatchReturnsPartialSuccessInRequestOrder() {
+        when(admissionControl.guard(eq("complete_batch"), anyList(), any(), any())).thenAnswer(invocation ->
+                ((Supplier<Mono<ResponseEntity<Object>>>) invocation.getArgument(2)).get());
+        when(deliveryService.completeDeliveries(anyList())).thenReturn(Mono.just(DeliveryBatchResponseDTO.builder()
+                .successCount(1)
+                .failureCount(1)
+                .results(List.of(
+                        DeliveryBatchResultDTO.builder().merchantUid("m-1").isSuccess(true).message("배달이 완료 되었습니다.").build(),
+                        DeliveryBatchResultDTO.builder().merchantUid("m-2").isSuccess(false).message("배송 정보 없음").build()))
+                .build()));
+
+        postBatch("/deliveries/complete/batch", "[{\"merchantUid\":\"m-1\"},{\"merchantUid\":\"m-2\"}]")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.successCount").isEqualTo(1)
+                .jsonPath("$.results[0].merchantUid").isEqualTo("m-1")
+                .jsonPath("$.results[1].merchantUid").isEqualTo("m-2")
+                .jsonPath("$.results[1].message").isEqualTo("배송 정보 없음");
+    }
+
+    private WebTestClient.ResponseSpec postBatch(String uri, String json) {
+        return client.post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(json)
+                .exchange();
+    }
+}
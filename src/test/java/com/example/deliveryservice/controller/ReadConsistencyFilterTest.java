@@ -0,0 +1,42 @@
+package com.example.deliveryservice.controller;
+
+import com.example.deliveryservice.util.ReadRouting;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadConsistencyFilterTest {
+
+    private final ReadConsistencyFilter filter = new ReadConsistencyFilter();
+
+    @Test
+    void primaryHeaderRoutesServiceReadsToPrimary() {
+        assertThat(routedRead(MockServerHttpRequest.get("/deliveries").header(ReadConsistencyFilter.HEADER, "Primary")))
+                .isEqualTo(ReadRouting.Target.PRIMARY);
+    }
+
+    @Test
+    void withoutHeaderServiceReadsStayOnReplica() {
+        assertThat(routedRead(MockServerHttpRequest.get("/deliveries"))).isEqualTo(ReadRouting.Target.REPLICA);
+        assertThat(routedRead(MockServerHttpRequest.get("/deliveries").header(ReadConsistencyFilter.HEADER, "replica")))
+                .isEqualTo(ReadRouting.Target.REPLICA);
+    }
+
+    // 서비스 조회 메서드처럼 preferReplica 로 감싼 호출이 필터 아래에서 어디로 가는지
+    private ReadRouting.Target routedRead(MockServerHttpRequest.BaseBuilder<?> request) {
+        AtomicReference<ReadRouting.Target> target = new AtomicReference<>();
+        WebFilterChain chain = exchange -> ReadRouting.preferReplica(Mono.deferContextual(context -> {
+            target.set(ReadRouting.target(context));
+            return Mono.<Void>empty();
+        }));
+
+        filter.filter(MockServerWebExchange.from(request), chain).block();
+        return target.get();
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.deliveryservice.domain;
+
+import com.example.deliveryservice.type.OrderStatus;
+import com.example.deliveryservice.type.WriteOutcome;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 조건부 UPDATE 가 허용된 상태/version 에서만 반영되고, 반영 여부를 영향 행 수로 정확히 돌려주는지 실제 MySQL 에서 확인한다.
+ * bulkUpsert 의 INSERTED/DUPLICATE 판정도 같은 DB 에서 확인한다.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DeliveryGuardedUpdateTest {
+
+    // DeliveryService 의 보상 반영 허용 상태와 같다
+    private static final Set<OrderStatus> ROLLBACK_SOURCES = EnumSet.of(
+            OrderStatus.ORDER_CREATED, OrderStatus.PAYMENT_COMPLETED, OrderStatus.ORDER_CONFIRMED, OrderStatus.ORDER_COOKING);
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static DatabaseClient databaseClient;
+    private static DeliveryRepositoryCustomImpl repository;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        databaseClient = DatabaseClient.create(ConnectionFactories.get(ConnectionFactoryOptions.builder()
+                .option(ConnectionFactoryOptions.DRIVER, "mysql")
+                .option(ConnectionFactoryOptions.HOST, MYSQL.getHost())
+                .option(ConnectionFactoryOptions.PORT, MYSQL.getMappedPort(MySQLContainer.MYSQL_PORT))
+                .option(ConnectionFactoryOptions.USER, MYSQL.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, MYSQL.getPassword())
+                .option(ConnectionFactoryOptions.DATABASE, MYSQL.getDatabaseName())
+                .build()));
+        repository = new DeliveryRepositoryCustomImpl(databaseClient);
+    }
+
+    @Test
+    void rollbackAppliesOnlyFromAllowedSources() {
+        String cooking = insert(OrderStatus.ORDER_COOKING);
+        String delivering = insert(OrderStatus.ORDER_DELIVERING);
+        String delivered = insert(OrderStatus.ORDER_DELIVERED);
+
+        List<DeliveryWriteResult> results = bulkUpdate(
+                new DeliveryStatusChange(cooking, OrderStatus.ORDER_CONFIRMED),
+                new DeliveryStatusChange(delivering, OrderStatus.ORDER_CONFIRMED),
+                new DeliveryStatusChange(delivered, OrderStatus.ORDER_CONFIRMED));
+
+        assertThat(results).containsExactly(
+                new DeliveryWriteResult(cooking, WriteOutcome.APPLIED),
+                new DeliveryWriteResult(delivering, WriteOutcome.SKIPPED),
+                new DeliveryWriteResult(delivered, WriteOutcome.SKIPPED));
+        assertThat(state(cooking)).isEqualTo(new DeliveryState(cooking, OrderStatus.ORDER_CONFIRMED, 1));
+        assertThat(state(delivering)).isEqualTo(new DeliveryState(delivering, OrderStatus.ORDER_DELIVERING, 0));
+        assertThat(state(delivered)).isEqualTo(new DeliveryState(delivered, OrderStatus.ORDER_DELIVERED, 0));
+    }
+
+    // 같은 보상이 다시 와도 version 이 올라가지 않고 SKIPPED (found rows 모드여도 WHERE 에서 걸러진다)
+    @Test
+    void redeliveredRollbackIsSkippedWithoutVersionBump() {
+        String merchantUid = insert(OrderStatus.ORDER_COOKING);
+
+        assertThat(bulkUpdate(new DeliveryStatusChange(merchantUid, OrderStatus.ORDER_CONFIRMED)))
+                .containsExactly(new DeliveryWriteResult(merchantUid, WriteOutcome.APPLIED));
+        assertThat(bulkUpdate(new DeliveryStatusChange(merchantUid, OrderStatus.ORDER_CONFIRMED)))
+                .containsExactly(new DeliveryWriteResult(merchantUid, WriteOutcome.SKIPPED));
+        assertThat(state(merchantUid).version()).isOne();
+    }
+
+    // 없는 주문, 같은 배치의 같은 주문 두 번째 변경도 행별로 결과가 나온다 (요청 순서 유지)
+    @Test
+    void resultsFollowRequestOrderPerRow() {
+        String first = insert(OrderStatus.ORDER_COOKING);
+        String missing = "missing-" + UUID.randomUUID();
+        String second = insert(OrderStatus.PAYMENT_COMPLETED);
+
+        List<DeliveryWriteResult> results = bulkUpdate(
+                new DeliveryStatusChange(first, OrderStatus.ORDER_CONFIRMED),
+                new DeliveryStatusChange(missing, OrderStatus.ORDER_CONFIRMED),
+                new DeliveryStatusChange(second, OrderStatus.ORDER_CANCELLED),
+                new DeliveryStatusChange(first, OrderStatus.ORDER_CONFIRMED));
+
+        assertThat(results).containsExactly(
+                new DeliveryWriteResult(first, WriteOutcome.APPLIED),
+                new DeliveryWriteResult(missing, WriteOutcome.SKIPPED),
+                new DeliveryWriteResult(second, WriteOutcome.APPLIED),
+                new DeliveryWriteResult(first, WriteOutcome.SKIPPED));
+        assertThat(state(second).status()).isEqualTo(OrderStatus.ORDER_CANCELLED);
+    }
+
+    // 같은 version 을 읽은 배차 요청이 동시에 와도 한 요청만 1을 받는다
+    @Test
+    void concurrentClaimsHaveSingleWinner() {
+        String merchantUid = insert(OrderStatus.ORDER_COOKING);
+
+        List<Long> updated = Flux.range(1, 8)
+                .flatMap(rider -> claim(merchantUid, 0, rider))
+                .collectList()
+                .block();
+
+        assertThat(updated).hasSize(8).containsOnly(0L, 1L).filteredOn(count -> count == 1L).hasSize(1);
+        assertThat(state(merchantUid)).isEqualTo(new DeliveryState(merchantUid, OrderStatus.ORDER_DELIVERING, 1));
+    }
+
+    @Test
+    void claimRequiresCookingStatusAndReadVersion() {
+        String cooking = insert(OrderStatus.ORDER_COOKING);
+        String delivering = insert(OrderStatus.ORDER_DELIVERING);
+
+        assertThat(claim(cooking, 5, 1).block()).isZero();
+        assertThat(claim(delivering, 0, 1).block()).isZero();
+        assertThat(state(cooking)).isEqualTo(new DeliveryState(cooking, OrderStatus.ORDER_COOKING, 0));
+        assertThat(state(delivering)).isEqualTo(new DeliveryState(delivering, OrderStatus.ORDER_DELIVERING, 0));
+    }
+
+    @Test
+    void completeRequiresDeliveringStatusAndReadVersion() {
+        String merchantUid = insert(OrderStatus.ORDER_COOKING);
+
+        assertThat(complete(merchantUid, 0).block()).isZero();
+        assertThat(claim(merchantUid, 0, 1).block()).isOne();
+        assertThat(complete(merchantUid, 0).block()).isZero();
+        assertThat(complete(merchantUid, 1).block()).isOne();
+        assertThat(complete(merchantUid, 2).block()).isZero();
+        assertThat(state(merchantUid)).isEqualTo(new DeliveryState(merchantUid, OrderStatus.ORDER_DELIVERED, 2));
+    }
+
+    // 재전달된 배치는 전부 DUPLICATE, 행은 그대로
+    @Test
+    void redeliveredBatchIsDuplicate() {
+        Delivery first = order("m-" + UUID.randomUUID(), OrderStatus.ORDER_COOKING);
+        Delivery second = order("m-" + UUID.randomUUID(), OrderStatus.ORDER_COOKING);
+
+        assertThat(upsert(first, second)).containsExactly(
+                new DeliveryWriteResult(first.merchantUid(), WriteOutcome.INSERTED),
+                new DeliveryWriteResult(second.merchantUid(), WriteOutcome.INSERTED));
+        assertThat(upsert(first, second)).containsExactly(
+                new DeliveryWriteResult(first.merchantUid(), WriteOutcome.DUPLICATE),
+                new DeliveryWriteResult(second.merchantUid(), WriteOutcome.DUPLICATE));
+        assertThat(state(first.merchantUid())).isEqualTo(new DeliveryState(first.merchantUid(), OrderStatus.ORDER_COOKING, 0));
+    }
+
+    // 같은 배치 안의 같은 주문은 첫 번째만 INSERTED, 저장된 값도 첫 번째 것
+    @Test
+    void intraBatchDuplicateKeepsFirst() {
+        String merchantUid = "m-" + UUID.randomUUID();
+        Delivery first = order(merchantUid, OrderStatus.ORDER_COOKING);
+        Delivery again = order(merchantUid, OrderStatus.ORDER_CREATED);
+
+        assertThat(upsert(first, again)).containsExactly(
+                new DeliveryWriteResult(merchantUid, WriteOutcome.INSERTED),
+                new DeliveryWriteResult(merchantUid, WriteOutcome.DUPLICATE));
+        assertThat(state(merchantUid).status()).isEqualTo(OrderStatus.ORDER_COOKING);
+    }
+
+    // 이미 있는 주문은 DUPLICATE 로 두고 덮어쓰지 않으며, 같은 배치의 새 주문은 INSERTED
+    @Test
+    void existingRowIsDuplicateAndUntouched() {
+        String existing = insert(OrderStatus.ORDER_DELIVERING);
+        Delivery fresh = order("m-" + UUID.randomUUID(), OrderStatus.ORDER_COOKING);
+
+        assertThat(upsert(order(existing, OrderStatus.ORDER_COOKING), fresh)).containsExactly(
+                new DeliveryWriteResult(existing, WriteOutcome.DUPLICATE),
+                new DeliveryWriteResult(fresh.merchantUid(), WriteOutcome.INSERTED));
+        assertThat(state(existing)).isEqualTo(new DeliveryState(existing, OrderStatus.ORDER_DELIVERING, 0));
+        assertThat(state(fresh.merchantUid())).isEqualTo(new DeliveryState(fresh.merchantUid(), OrderStatus.ORDER_COOKING, 0));
+    }
+
+    private static List<DeliveryWriteResult> upsert(Delivery... deliveries) {
+        return repository.bulkUpsert(List.of(deliveries)).collectList().block();
+    }
+
+    private static Delivery order(String merchantUid, OrderStatus status) {
+        return Delivery.builder()
+                .merchantUid(merchantUid)
+                .status(status)
+                .addressStart("start")
+                .addressDestination("destination")
+                .build();
+    }
+
+    private static Mono<Long> claim(String merchantUid, int version, int riderUserUid) {
+        return DeliveryRepositoryCustomImpl.bind(databaseClient.sql(queryOf("claimCooking")), "riderSocialUid", null, Integer.class)
+                .bind("merchantUid", merchantUid)
+                .bind("version", version)
+                .bind("riderUserUid", riderUserUid)
+                .bind("deliveryAcceptTime", LocalDateTime.now())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Mono<Long> complete(String merchantUid, int version) {
+        return databaseClient.sql(queryOf("completeDelivering"))
+                .bind("merchantUid", merchantUid)
+                .bind("version", version)
+                .bind("deliveredTime", LocalDateTime.now())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // 리포지토리 @Query 를 그대로 실행
+    private static String queryOf(String methodName) {
+        return Arrays.stream(DeliveryRepository.class.getDeclaredMethods())
+                .filter(method -> method.getName().equals(methodName))
+                .findFirst()
+                .map(method -> method.getAnnotation(Query.class).value())
+                .orElseThrow();
+    }
+
+    private static List<DeliveryWriteResult> bulkUpdate(DeliveryStatusChange... changes) {
+        return repository.bulkUpdateStatus(ROLLBACK_SOURCES, List.of(changes)).collectList().block();
+    }
+
+    private static String insert(OrderStatus status) {
+        String merchantUid = "m-" + UUID.randomUUID();
+        databaseClient.sql("INSERT INTO delivery (merchant_uid, status, address_start, address_destination) "
+                        + "VALUES (:merchantUid, :status, 'start', 'destination')")
+                .bind("merchantUid", merchantUid)
+                .bind("status", status.name())
+                .fetch()
+                .rowsUpdated()
+                .block();
+        return merchantUid;
+    }
+
+    private static DeliveryState state(String merchantUid) {
+        return repository.findStatesByMerchantUidIn(List.of(merchantUid)).single().block();
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.deliveryservice.domain;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.repository.Query;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * DeliveryRepository 의 각 쿼리를 Flyway 로 만든 MySQL 스키마에서 EXPLAIN 해 의도한 인덱스를 쓰는지 확인한다.
+ * 쿼리는 @Query 에서 그대로 읽어 파라미터만 값으로 바꾼다.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DeliveryQueryPlanTest {
+
+    private static final String UK_MERCHANT_UID = "uk_delivery_merchant_uid";
+    private static final String IDX_STATUS_UID = "idx_delivery_status_uid";
+    private static final String IDX_RIDER_USER = "idx_delivery_rider_user_status";
+    private static final String IDX_RIDER_SOCIAL = "idx_delivery_rider_social_status";
+
+    // 옵티마이저가 풀 스캔을 고르지 않도록 운영과 비슷하게 대부분은 배달완료, 조리중/배달중은 일부만 둔다
+    private static final int ROWS = 20_000;
+
+    private static final Map<String, String> PARAMS = Map.ofEntries(
+            Map.entry("uid", "7"),
+            Map.entry("cursor", "0"),
+            Map.entry("limit", "20"),
+            Map.entry("merchantUid", "'m-42'"),
+            Map.entry("merchantUids", "'m-1', 'm-2', 'm-3'"),
+            Map.entry("version", "0"),
+            Map.entry("riderUserUid", "7"),
+            Map.entry("riderSocialUid", "NULL"),
+            Map.entry("deliveryAcceptTime", "NOW(6)"),
+            Map.entry("deliveredTime", "NOW(6)"),
+            Map.entry("createdAt", "NOW(6)"),
+            Map.entry("fromTime", "NOW(6) - INTERVAL 1 DAY"),
+            Map.entry("fromUid", "0"),
+            Map.entry("toTime", "NOW(6) - INTERVAL 1 HOUR"));
+
+    private static final Pattern NAMED_PARAM = Pattern.compile(":(\\w+)");
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @BeforeAll
+    static void migrateAndLoad() throws SQLException {
+        Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        try (Connection connection = connect();
+             PreparedStatement insert = connection.prepareStatement("""
+                     INSERT INTO delivery (merchant_uid, status, rider_user_uid, rider_social_uid, address_start, address_destination)
+                     VALUES (?, ?, ?, ?, 'start', 'destination')
+                     """)) {
+            connection.setAutoCommit(false);
+            for (int i = 0; i < ROWS; i++) {
+                String status = i % 100 == 0 ? "ORDER_COOKING" : i % 100 == 1 ? "ORDER_DELIVERING" : "ORDER_DELIVERED";
+                insert.setString(1, "m-" + i);
+                insert.setString(2, status);
+                insert.setObject(3, status.equals("ORDER_COOKING") ? null : i % 500);
+                insert.setObject(4, status.equals("ORDER_COOKING") ? null : i % 300);
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE TABLE delivery");
+            }
+        }
+    }
+
+    @Test
+    void getCookingOrders() throws SQLException {
+        assertThat(indexUsedBy("getCookingOrders")).isEqualTo(IDX_STATUS_UID);
+    }
+
+    @Test
+    void findCookingPage() throws SQLException {
+        assertThat(indexUsedBy("findCookingPage")).isEqualTo(IDX_STATUS_UID);
+    }
+
+    @Test
+    void findSlaCandidates() throws SQLException {
+        assertThat(indexUsedBy("findSlaCandidates")).isEqualTo(IDX_STATUS_UID);
+    }
+
+    @Test
+    void findCookingSlaWindow() throws SQLException {
+        assertThat(indexUsedBy("findCookingSlaWindow")).isEqualTo(IDX_STATUS_UID);
+    }
+
+    @Test
+    void findDeliveringSlaWindow() throws SQLException {
+        assertThat(indexUsedBy("findDeliveringSlaWindow")).isEqualTo(IDX_STATUS_UID);
+    }
+
+    @Test
+    void getDeliveringByUserUid() throws SQLException {
+        assertThat(indexUsedBy("getDeliveringByUserUid")).isEqualTo(IDX_RIDER_USER);
+    }
+
+    @Test
+    void findDeliveringPageByUserUid() throws SQLException {
+        assertThat(indexUsedBy("findDeliveringPageByUserUid")).isEqualTo(IDX_RIDER_USER);
+    }
+
+    @Test
+    void getDeliveringBySocialUid() throws SQLException {
+        assertThat(indexUsedBy("getDeliveringBySocialUid")).isEqualTo(IDX_RIDER_SOCIAL);
+    }
+
+    @Test
+    void findDeliveringPageBySocialUid() throws SQLException {
+        assertThat(indexUsedBy("findDeliveringPageBySocialUid")).isEqualTo(IDX_RIDER_SOCIAL);
+    }
+
+    @Test
+    void findCookingByMerchantUid() throws SQLException {
+        assertThat(indexUsedBy("findCookingByMerchantUid")).isEqualTo(UK_MERCHANT_UID);
+    }
+
+    @Test
+    void findDeliveringByMerchantUid() throws SQLException {
+        assertThat(indexUsedBy("findDeliveringByMerchantUid")).isEqualTo(UK_MERCHANT_UID);
+    }
+
+    @Test
+    void claimCooking() throws SQLException {
+        assertThat(indexUsedBy("claimCooking")).isEqualTo(UK_MERCHANT_UID);
+    }
+
+    @Test
+    void completeDelivering() throws SQLException {
+        assertThat(indexUsedBy("completeDelivering")).isEqualTo(UK_MERCHANT_UID);
+    }
+
+    // 파생 쿼리라 @Query 가 없음 → Spring Data 가 만드는 것과 같은 조건으로 확인
+    @Test
+    void findAllByMerchantUidIn() throws SQLException {
+        assertThat(explainKey(bind("SELECT * FROM `delivery` WHERE `merchant_uid` IN (:merchantUids)")))
+                .isEqualTo(UK_MERCHANT_UID);
+    }
+
+    @Test
+    void findStatesByMerchantUidIn() throws SQLException {
+        assertThat(explainKey(bind(DeliveryRepositoryCustomImpl.FIND_STATES_SQL))).isEqualTo(UK_MERCHANT_UID);
+    }
+
+    @Test
+    void bulkUpdateStatus() throws SQLException {
+        String sql = DeliveryRepositoryCustomImpl.UPDATE_STATUS_PREFIX + "'ORDER_COOKING')";
+        for (String value : new String[]{"'ORDER_CONFIRMED'", "'m-42'", "'ORDER_CONFIRMED'"}) {
+            sql = sql.replaceFirst("\\?", value);
+        }
+        assertThat(explainKey(sql)).isEqualTo(UK_MERCHANT_UID);
+    }
+
+    private static String indexUsedBy(String methodName) throws SQLException {
+        Method method = Arrays.stream(DeliveryRepository.class.getDeclaredMethods())
+                .filter(candidate -> candidate.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow();
+        return explainKey(bind(method.getAnnotation(Query.class).value()));
+    }
+
+    private static String bind(String sql) {
+        Matcher matcher = NAMED_PARAM.matcher(sql);
+        StringBuilder bound = new StringBuilder();
+        while (matcher.find()) {
+            String value = PARAMS.get(matcher.group(1));
+            assertThat(value).as("파라미터 값 없음: %s", matcher.group()).isNotNull();
+            matcher.appendReplacement(bound, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(bound);
+        return bound.toString();
+    }
+
+    private static String explainKey(String sql) throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+            assertThat(plan.next()).isTrue();
+            return plan.getString("key");
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+    }
+}
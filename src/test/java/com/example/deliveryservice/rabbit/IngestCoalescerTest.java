@@ -0,0 +1,96 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.type.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestCoalescerTest {
+
+    @Test
+    void distinctOrdersPassThroughInArrivalOrder() {
+        IngestCoalescer.Result result = IngestCoalescer.coalesce(List.of(
+                save("m-1"), rollback("m-2", OrderStatus.ORDER_CONFIRMED), save("m-3")));
+
+        assertThat(result.inserts()).extracting(OrderCreatedMessage::getMerchantUid).containsExactly("m-1", "m-3");
+        assertThat(result.rollbacks()).extracting(OrderCreatedMessage::getMerchantUid).containsExactly("m-2");
+        assertThat(result.rollbacksIfDuplicate()).isEmpty();
+        assertThat(result.merged()).isZero();
+    }
+
+    // 저장 후 보상 - 보상 상태로 한 번만 INSERT 하고, 이미 있던 주문이면 보상을 UPDATE 로 반영할 수 있게 남긴다
+    @Test
+    void saveThenRollbackInsertsFinalStatus() {
+        IngestCommand save = save("m-1");
+        IngestCommand rollback = rollback("m-1", OrderStatus.ORDER_CONFIRMED);
+
+        IngestCoalescer.Result result = IngestCoalescer.coalesce(List.of(save, rollback));
+
+        assertThat(result.inserts()).singleElement().satisfies(insert -> {
+            assertThat(insert.getMerchantUid()).isEqualTo("m-1");
+            assertThat(insert.getStatus()).isEqualTo(OrderStatus.ORDER_CONFIRMED);
+            assertThat(insert.getAddressStart()).isEqualTo("start-m-1");
+        });
+        assertThat(result.rollbacksIfDuplicate()).containsEntry("m-1", rollback.message());
+        assertThat(result.rollbacks()).isEmpty();
+        assertThat(result.merged()).isOne();
+        // 원본 메시지는 dedup 기록/ack 와 공유하므로 바꾸지 않는다
+        assertThat(save.message().getStatus()).isEqualTo(OrderStatus.ORDER_COOKING);
+    }
+
+    @Test
+    void repeatedRollbacksKeepLastOne() {
+        IngestCommand last = rollback("m-1", OrderStatus.ORDER_CONFIRMED);
+
+        IngestCoalescer.Result result = IngestCoalescer.coalesce(List.of(
+                rollback("m-1", OrderStatus.PAYMENT_COMPLETED), last));
+
+        assertThat(result.rollbacks()).containsExactly(last.message());
+        assertThat(result.inserts()).isEmpty();
+        assertThat(result.merged()).isOne();
+    }
+
+    // 저장 사본은 첫 번째만 쓰고, 보상 뒤에 온 저장 사본이 보상 상태를 덮지 않는다
+    @Test
+    void redeliveredSaveIsIgnored() {
+        IngestCommand first = save("m-1");
+
+        IngestCoalescer.Result result = IngestCoalescer.coalesce(List.of(
+                first, rollback("m-1", OrderStatus.ORDER_CONFIRMED), save("m-1")));
+
+        assertThat(result.inserts()).singleElement().satisfies(insert -> {
+            assertThat(insert.getStatus()).isEqualTo(OrderStatus.ORDER_CONFIRMED);
+            assertThat(insert.getAddressStart()).isEqualTo(first.message().getAddressStart());
+        });
+        assertThat(result.merged()).isEqualTo(2);
+    }
+
+    @Test
+    void duplicateSavesInsertFirstMessageOnly() {
+        IngestCommand first = save("m-1");
+
+        IngestCoalescer.Result result = IngestCoalescer.coalesce(List.of(first, save("m-1")));
+
+        assertThat(result.inserts()).containsExactly(first.message());
+        assertThat(result.rollbacksIfDuplicate()).isEmpty();
+        assertThat(result.merged()).isOne();
+    }
+
+    private static IngestCommand save(String merchantUid) {
+        return IngestCommand.save(OrderCreatedMessage.builder()
+                .merchantUid(merchantUid)
+                .status(OrderStatus.ORDER_COOKING)
+                .addressStart("start-" + merchantUid)
+                .build(), MessageAck.NONE);
+    }
+
+    private static IngestCommand rollback(String merchantUid, OrderStatus status) {
+        return IngestCommand.rollback(OrderCreatedMessage.builder()
+                .merchantUid(merchantUid)
+                .status(status)
+                .build(), MessageAck.NONE);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.type.OrderStatus;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisTimeoutException;
+import org.redisson.client.codec.Codec;
+import org.redisson.misc.CompletableFutureWrapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MessageDeduplicatorTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RBucket<Object> bucket;
+    @Mock
+    private Channel channel;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private MessageDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        deduplicator = new MessageDeduplicator(redissonClient, new DeliveryMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(deduplicator, "enabled", true);
+        ReflectionTestUtils.setField(deduplicator, "ttl", TTL);
+        ReflectionTestUtils.setField(deduplicator, "maxSize", 1000L);
+        ReflectionTestUtils.setField(deduplicator, "clusterEnabled", false);
+        deduplicator.ticker = nanos::get;
+        deduplicator.init();
+    }
+
+    // 키는 operation + merchantUid + status: 하나라도 다르면 다른 메시지
+    @Test
+    void keyIsOperationMerchantUidAndStatus() {
+        assertThat(MessageDeduplicator.key("save", message("m-1", OrderStatus.ORDER_COOKING)))
+                .isEqualTo("save:m-1:ORDER_COOKING");
+
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 1)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+        assertThat(check("rollback", "m-1", OrderStatus.ORDER_COOKING, 2)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+        assertThat(check("save", "m-2", OrderStatus.ORDER_COOKING, 3)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+        assertThat(check("save", "m-1", OrderStatus.ORDER_CONFIRMED, 4)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 5)).isEqualTo(MessageDeduplicator.Verdict.HELD);
+    }
+
+    // 원본이 처리 중일 때 온 사본은 ack 하지 않고 있다가 원본이 커밋되면 ack, 그 뒤의 사본은 바로 중복 처리
+    @Test
+    void copyOfInFlightMessageIsAckedOnlyAfterCommit() throws IOException {
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 1)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 2)).isEqualTo(MessageDeduplicator.Verdict.HELD);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+
+        deduplicator.markCommitted("save", message("m-1", OrderStatus.ORDER_COOKING));
+
+        verify(channel).basicAck(2, false);
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 3)).isEqualTo(MessageDeduplicator.Verdict.DUPLICATE);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    // 원본이 실패하면 붙잡아 둔 사본도 requeue 하고, 다음 사본은 처음 보는 메시지로 다시 처리
+    @Test
+    void forgetRequeuesHeldCopiesAndClearsKey() throws IOException {
+        check("save", "m-1", OrderStatus.ORDER_COOKING, 1);
+        check("save", "m-1", OrderStatus.ORDER_COOKING, 2);
+
+        deduplicator.forget("save", message("m-1", OrderStatus.ORDER_COOKING));
+
+        verify(channel).basicNack(2, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 3)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+    }
+
+    // 보상으로 끝난 주문은 커밋돼도 기록하지 않는다: 사본은 ack, 이후 다시 온 주문은 새로 처리
+    @Test
+    void excludedMessageIsNotRememberedAfterCommit() throws IOException {
+        check("save", "m-1", OrderStatus.ORDER_COOKING, 1);
+        check("save", "m-1", OrderStatus.ORDER_COOKING, 2);
+        OrderCreatedMessage message = message("m-1", OrderStatus.ORDER_COOKING);
+
+        deduplicator.excludeFromRecord("save", message);
+        deduplicator.markCommitted("save", message);
+
+        verify(channel).basicAck(2, false);
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 3)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+    }
+
+    // TTL 이 지나면 잊고, 결과를 모른 채 만료된 사본은 requeue
+    @Test
+    void entryExpiresAfterTtl() throws IOException {
+        check("save", "m-1", OrderStatus.ORDER_COOKING, 1);
+        check("save", "m-1", OrderStatus.ORDER_COOKING, 2);
+
+        nanos.addAndGet(TTL.plusSeconds(1).toNanos());
+
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 3)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+        verify(channel, timeout(1000)).basicNack(2, false, true);
+    }
+
+    // AUTO ack 모드(채널 없음)는 붙잡아 둘 수 없어 중복으로 버린다
+    @Test
+    void copyWithoutChannelIsDuplicate() {
+        check("save", "m-1", OrderStatus.ORDER_COOKING, 1);
+
+        assertThat(deduplicator.check("save", message("m-1", OrderStatus.ORDER_COOKING), MessageAck.NONE))
+                .isEqualTo(MessageDeduplicator.Verdict.DUPLICATE);
+    }
+
+    // cluster 모드: 다른 파드가 커밋한 메시지는 중복, 커밋하면 Redis 에 TTL 과 함께 기록
+    @Test
+    void clusterModeUsesCommittedRecordInRedis() {
+        enableCluster();
+        when(bucket.isExists()).thenReturn(true, false);
+
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 1)).isEqualTo(MessageDeduplicator.Verdict.DUPLICATE);
+        assertThat(check("save", "m-2", OrderStatus.ORDER_COOKING, 2)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+
+        when(bucket.setAsync(any(), anyLong(), any())).thenReturn(new CompletableFutureWrapper<>((Void) null));
+        deduplicator.markCommitted("save", message("m-2", OrderStatus.ORDER_COOKING));
+
+        verify(redissonClient).getBucket(eq("dedup:delivery:save:m-2:ORDER_COOKING"), any(Codec.class));
+        verify(bucket).setAsync("1", TTL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Redis 조회가 실패하면 통과시킨다 (저장은 merchant_uid 유니크 키로 멱등)
+    @Test
+    void clusterModeFallsBackToFirstWhenRedisFails() {
+        enableCluster();
+        when(bucket.isExists()).thenThrow(new RedisTimeoutException("timeout"));
+
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 1)).isEqualTo(MessageDeduplicator.Verdict.FIRST);
+        // 로컬 기록은 남아 같은 파드의 사본은 계속 거른다
+        assertThat(check("save", "m-1", OrderStatus.ORDER_COOKING, 2)).isEqualTo(MessageDeduplicator.Verdict.HELD);
+    }
+
+    private void enableCluster() {
+        ReflectionTestUtils.setField(deduplicator, "clusterEnabled", true);
+        when(redissonClient.getBucket(any(String.class), any(Codec.class))).thenReturn(bucket);
+    }
+
+    private MessageDeduplicator.Verdict check(String operation, String merchantUid, OrderStatus status, long deliveryTag) {
+        return deduplicator.check(operation, message(merchantUid, status), new MessageAck(channel, deliveryTag));
+    }
+
+    private static OrderCreatedMessage message(String merchantUid, OrderStatus status) {
+        return OrderCreatedMessage.builder().merchantUid(merchantUid).status(status).build();
+    }
+}
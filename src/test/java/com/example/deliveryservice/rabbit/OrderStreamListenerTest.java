@@ -0,0 +1,193 @@
+package com.example.deliveryservice.rabbit;
+
+import com.example.deliveryservice.domain.DeliveryWriteResult;
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.service.DeliveryService;
+import com.example.deliveryservice.type.OrderStatus;
+import com.example.deliveryservice.type.WriteOutcome;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStreamListenerTest {
+
+    private static final int MAX_RETRIES = 2;
+
+    @Mock
+    private DeliveryService deliveryService;
+    @Mock
+    private StatusChangePublisher statusChangePublisher;
+    @Mock
+    private MessageDeduplicator messageDeduplicator;
+    @Mock
+    private DeadLetterPublisher deadLetterPublisher;
+    @Mock
+    private Channel channel;
+
+    private OrderStreamListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new OrderStreamListener(deliveryService, statusChangePublisher,
+                new DeliveryMetrics(new SimpleMeterRegistry()), messageDeduplicator, deadLetterPublisher);
+        ReflectionTestUtils.setField(listener, "maxRetries", MAX_RETRIES);
+        ReflectionTestUtils.setField(listener, "retryMinBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(listener, "retryMaxBackoff", Duration.ofMillis(2));
+        ReflectionTestUtils.setField(listener, "retryJitter", 0.0);
+    }
+
+    // 데이터 오류는 반으로 나눠 가며 문제 주문 한 건만 보상 + DLQ, 나머지는 저장하고 배치 전체 ack
+    @Test
+    void dataErrorBisectsAndDeadLettersOnlyBadOrder() throws IOException {
+        when(deliveryService.saveOrders(anyList())).thenAnswer(invocation -> {
+            List<OrderCreatedMessage> batch = invocation.getArgument(0);
+            return containsMerchantUid(batch, "bad")
+                    ? Mono.error(new DataIntegrityViolationException("bad row"))
+                    : Mono.just(inserted(batch));
+        });
+        when(statusChangePublisher.publishAll(anyList())).thenReturn(Mono.empty());
+        when(deadLetterPublisher.publishAll(anyString(), anyList(), any(), anyBoolean())).thenReturn(Mono.empty());
+        List<IngestCommand> batch = List.of(save("m-1", 1), save("m-2", 2), save("bad", 3), save("m-4", 4));
+
+        StepVerifier.create(processBatch(batch)).verifyComplete();
+
+        // 4건 → 2+2 → 1+1 (bad 는 재시도 없이 바로 분할)
+        verify(deliveryService, times(5)).saveOrders(anyList());
+        OrderCreatedMessage bad = batch.get(2).message();
+        ArgumentCaptor<List<OrderCreatedMessage>> compensations = listCaptor();
+        verify(statusChangePublisher).publishAll(compensations.capture());
+        assertThat(compensations.getValue()).singleElement().satisfies(compensation -> {
+            assertThat(compensation.getMerchantUid()).isEqualTo("bad");
+            assertThat(compensation.getStatus()).isEqualTo(OrderStatus.ORDER_CONFIRMED);
+        });
+        assertThat(bad.getStatus()).isEqualTo(OrderStatus.ORDER_COOKING);
+        verify(deadLetterPublisher).publishAll(eq("save"), eq(List.of(bad)), any(DataIntegrityViolationException.class), eq(true));
+        verify(messageDeduplicator).excludeFromRecord("save", bad);
+        for (int tag = 1; tag <= 4; tag++) {
+            verify(channel).basicAck(tag, false);
+        }
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        batch.forEach(command -> verify(messageDeduplicator).markCommitted("save", command.message()));
+    }
+
+    // 일시적 오류는 backoff 재시도 후에도 실패하면 보상/DLQ 없이 배치 전체 nack (재전달분으로 다시 저장)
+    @Test
+    void transientErrorRequeuesWholeBatchWithoutCompensation() throws IOException {
+        when(deliveryService.saveOrders(anyList()))
+                .thenReturn(Mono.error(new TransientDataAccessResourceException("db down")));
+        List<IngestCommand> batch = List.of(save("m-1", 1), save("m-2", 2));
+
+        StepVerifier.create(processBatch(batch)).verifyComplete();
+
+        verify(deliveryService, times(MAX_RETRIES + 1)).saveOrders(anyList());
+        verify(statusChangePublisher, never()).publishAll(anyList());
+        verify(deadLetterPublisher, never()).publishAll(anyString(), anyList(), any(), anyBoolean());
+        verify(channel).basicNack(1, false, true);
+        verify(channel).basicNack(2, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        verify(messageDeduplicator, never()).markCommitted(anyString(), any());
+        batch.forEach(command -> verify(messageDeduplicator).forget("save", command.message()));
+    }
+
+    // DLQ 전송까지 실패하면 원본이 다시 오도록 nack
+    @Test
+    void deadLetterFailureRequeues() throws IOException {
+        when(deliveryService.saveOrders(anyList())).thenReturn(Mono.error(new DataIntegrityViolationException("bad row")));
+        when(statusChangePublisher.publishAll(anyList())).thenReturn(Mono.empty());
+        when(deadLetterPublisher.publishAll(anyString(), anyList(), any(), anyBoolean()))
+                .thenReturn(Mono.error(new IllegalStateException("broker down")));
+
+        StepVerifier.create(processBatch(List.of(save("bad", 1)))).verifyComplete();
+
+        verify(channel).basicNack(1, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    // 보상 UPDATE 도 같은 방식으로 분할하되, 보상 메시지 자체는 되돌릴 대상이 없으므로 DLQ 만 남긴다
+    @Test
+    void rollbackDataErrorDeadLettersWithoutCompensation() throws IOException {
+        when(deliveryService.updateOrders(anyList())).thenAnswer(invocation -> {
+            List<OrderCreatedMessage> batch = invocation.getArgument(0);
+            return containsMerchantUid(batch, "bad")
+                    ? Mono.error(new DataIntegrityViolationException("bad row"))
+                    : Mono.just(batch.stream()
+                            .map(message -> new DeliveryWriteResult(message.getMerchantUid(), WriteOutcome.APPLIED))
+                            .toList());
+        });
+        when(deadLetterPublisher.publishAll(anyString(), anyList(), any(), anyBoolean())).thenReturn(Mono.empty());
+        List<IngestCommand> batch = List.of(rollback("m-1", 1), rollback("bad", 2), rollback("m-3", 3));
+
+        StepVerifier.create(processBatch(batch)).verifyComplete();
+
+        verify(deadLetterPublisher).publishAll(eq("rollback"), eq(List.of(batch.get(1).message())),
+                any(DataIntegrityViolationException.class), eq(false));
+        verify(statusChangePublisher, never()).publishAll(anyList());
+        verify(deliveryService, never()).saveOrders(anyList());
+        for (int tag = 1; tag <= 3; tag++) {
+            verify(channel).basicAck(tag, false);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<Void> processBatch(List<IngestCommand> batch) {
+        return (Mono<Void>) ReflectionTestUtils.invokeMethod(listener, "processBatch", batch);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<OrderCreatedMessage>> listCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private static boolean containsMerchantUid(List<OrderCreatedMessage> batch, String merchantUid) {
+        return batch.stream().anyMatch(message -> message.getMerchantUid().equals(merchantUid));
+    }
+
+    private static List<DeliveryWriteResult> inserted(List<OrderCreatedMessage> batch) {
+        List<DeliveryWriteResult> results = new ArrayList<>(batch.size());
+        batch.forEach(message -> results.add(new DeliveryWriteResult(message.getMerchantUid(), WriteOutcome.INSERTED)));
+        return results;
+    }
+
+    private IngestCommand save(String merchantUid, long deliveryTag) {
+        return IngestCommand.save(OrderCreatedMessage.builder()
+                .merchantUid(merchantUid)
+                .status(OrderStatus.ORDER_COOKING)
+                .build(), new MessageAck(channel, deliveryTag));
+    }
+
+    private IngestCommand rollback(String merchantUid, long deliveryTag) {
+        return IngestCommand.rollback(OrderCreatedMessage.builder()
+                .merchantUid(merchantUid)
+                .status(OrderStatus.ORDER_CONFIRMED)
+                .build(), new MessageAck(channel, deliveryTag));
+    }
+}
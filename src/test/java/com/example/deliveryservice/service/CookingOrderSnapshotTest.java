@@ -0,0 +1,120 @@
+package com.example.deliveryservice.service;
+
+import com.example.deliveryservice.dto.CookingOrderEventDTO;
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.type.CookingOrderEventType;
+import com.example.deliveryservice.type.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CookingOrderSnapshotTest {
+
+    private CookingOrderSnapshot snapshot;
+    private final List<CookingOrderEventDTO> events = new ArrayList<>();
+    private Disposable subscription;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new CookingOrderSnapshot();
+        ReflectionTestUtils.setField(snapshot, "maxPending", 256);
+        ReflectionTestUtils.setField(snapshot, "gridCellDegrees", 0.01);
+        snapshot.initGrid();
+        subscription = snapshot.stream().subscribe(events::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscription.dispose();
+    }
+
+    @Test
+    void reconcileAddsAndRemovesToMatchDb() {
+        snapshot.replaceAll(snapshot.beginReconcile(), List.of(cooking("m-1"), cooking("m-2")));
+        snapshot.replaceAll(snapshot.beginReconcile(), List.of(cooking("m-2")));
+
+        assertThat(merchantUids()).containsExactly("m-2");
+        assertThat(eventTypes()).containsExactly(
+                CookingOrderEventType.SNAPSHOT, CookingOrderEventType.ADDED, CookingOrderEventType.ADDED,
+                CookingOrderEventType.REMOVED);
+        assertThat(snapshot.isLoaded()).isTrue();
+    }
+
+    // 조회 중에 배차된 주문이 오래된 조회 결과로 다시 추가되지 않는다
+    @Test
+    void staleReadDoesNotResurrectClaimedOrder() {
+        snapshot.replaceAll(snapshot.beginReconcile(), List.of(cooking("m-1")));
+
+        long readStart = snapshot.beginReconcile();
+        snapshot.remove("m-1");
+        snapshot.replaceAll(readStart, List.of(cooking("m-1")));
+
+        assertThat(merchantUids()).isEmpty();
+        assertThat(eventTypes()).containsExactly(
+                CookingOrderEventType.SNAPSHOT, CookingOrderEventType.ADDED, CookingOrderEventType.REMOVED);
+    }
+
+    // 조회 중에 저장된 주문이 그 주문을 모르는 조회 결과로 지워지지 않는다
+    @Test
+    void staleReadDoesNotDropNewlySavedOrder() {
+        long readStart = snapshot.beginReconcile();
+        snapshot.apply(cooking("m-1"));
+        snapshot.replaceAll(readStart, List.of());
+
+        assertThat(merchantUids()).containsExactly("m-1");
+        assertThat(eventTypes()).containsExactly(CookingOrderEventType.SNAPSHOT, CookingOrderEventType.ADDED);
+    }
+
+    // 조회 시작 전의 변경은 DB 결과를 그대로 따른다 (다음 주기)
+    @Test
+    void changesBeforeReadStartFollowDb() {
+        snapshot.apply(cooking("m-1"));
+        snapshot.replaceAll(snapshot.beginReconcile(), List.of());
+
+        assertThat(merchantUids()).isEmpty();
+    }
+
+    @Test
+    void versionAndEtagChangeOnlyWhenContentChanges() {
+        CookingOrderSnapshot.View before = snapshot.current();
+        snapshot.apply(cooking("m-1"));
+        CookingOrderSnapshot.View added = snapshot.current();
+        snapshot.apply(cooking("m-1"));
+
+        assertThat(added.version()).isGreaterThan(before.version());
+        assertThat(added.etag()).isNotEqualTo(before.etag());
+        assertThat(snapshot.current()).isSameAs(added);
+    }
+
+    @Test
+    void nonCookingStatusRemovesOrder() {
+        snapshot.apply(cooking("m-1"));
+        snapshot.apply(OrderCreatedMessage.builder().merchantUid("m-1").status(OrderStatus.ORDER_DELIVERING).build());
+
+        assertThat(merchantUids()).isEmpty();
+    }
+
+    private List<String> merchantUids() {
+        return snapshot.current().orders().stream().map(OrderCreatedMessage::getMerchantUid).toList();
+    }
+
+    private List<CookingOrderEventType> eventTypes() {
+        return events.stream().map(CookingOrderEventDTO::getType).toList();
+    }
+
+    private static OrderCreatedMessage cooking(String merchantUid) {
+        return OrderCreatedMessage.builder()
+                .merchantUid(merchantUid)
+                .status(OrderStatus.ORDER_COOKING)
+                .addressStartLat(37.5)
+                .addressStartLan(127.0)
+                .build();
+    }
+}
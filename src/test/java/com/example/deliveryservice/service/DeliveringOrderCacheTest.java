@@ -0,0 +1,124 @@
+package com.example.deliveryservice.service;
+
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.api.listener.StatusListener;
+import org.redisson.client.codec.Codec;
+import org.redisson.misc.CompletableFutureWrapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// 두 파드가 같은 RTopic 을 구독하는 상황을 mock 토픽으로 재현 (publish 하면 구독한 모든 파드의 리스너가 받는다)
+@ExtendWith(MockitoExtension.class)
+class DeliveringOrderCacheTest {
+
+    private static final String TOPIC = "cache:delivery:delivering:invalidate";
+
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RTopic topic;
+
+    private final List<MessageListener<String>> subscribers = new CopyOnWriteArrayList<>();
+    private final List<StatusListener> statusListeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private DeliveringOrderCache podA;
+    private DeliveringOrderCache podB;
+
+    @BeforeEach
+    void setUp() {
+        when(redissonClient.getTopic(eq(TOPIC), any(Codec.class))).thenReturn(topic);
+        when(topic.addListener(eq(String.class), any())).thenAnswer(invocation -> {
+            subscribers.add(invocation.getArgument(1));
+            return subscribers.size();
+        });
+        when(topic.addListener(any(StatusListener.class))).thenAnswer(invocation -> {
+            statusListeners.add(invocation.getArgument(0));
+            return statusListeners.size();
+        });
+        podA = pod();
+        podB = pod();
+    }
+
+    // A 에서 배차/완료로 라이더 항목을 지우면 B 에 캐시된 같은 라이더 항목도 지워지고, 다른 라이더 항목은 남는다
+    @Test
+    void evictOnOnePodInvalidatesOtherPod() {
+        when(topic.publishAsync(any())).thenAnswer(invocation -> {
+            String keys = invocation.getArgument(0);
+            subscribers.forEach(subscriber -> subscriber.onMessage(TOPIC, keys));
+            return new CompletableFutureWrapper<>((long) subscribers.size());
+        });
+        podB.get("user", 7, loader()).block();
+        podB.get("social", 8, loader()).block();
+        podB.get("user", 7, loader()).block();
+        assertThat(loads).hasValue(2);
+
+        podA.evictRiders(List.of(OrderCreatedMessage.builder().merchantUid("m-1").riderUserUid(7).build()));
+
+        verify(topic).publishAsync("user:7");
+        podB.get("user", 7, loader()).block();
+        assertThat(loads).hasValue(3);
+        podB.get("social", 8, loader()).block();
+        assertThat(loads).hasValue(3);
+    }
+
+    // 캐시를 채울 때는 다른 파드에 아무것도 보내지 않는다
+    @Test
+    void fillingCacheDoesNotPublish() {
+        podA.get("user", 7, loader()).block();
+        podB.get("user", 7, loader()).block();
+
+        assertThat(loads).hasValue(2);
+        verify(topic, never()).publishAsync(any());
+    }
+
+    // 재구독되면 끊긴 동안 놓친 무효화가 있을 수 있어 전부 비운다
+    @Test
+    void resubscribeClearsPod() {
+        podB.get("user", 7, loader()).block();
+
+        statusListeners.forEach(listener -> listener.onSubscribe(TOPIC));
+
+        podB.get("user", 7, loader()).block();
+        assertThat(loads).hasValue(2);
+    }
+
+    private DeliveringOrderCache pod() {
+        DeliveringOrderCache cache = new DeliveringOrderCache(redissonClient, new DeliveryMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofSeconds(30));
+        cache.init();
+        return cache;
+    }
+
+    private Supplier<Mono<List<OrderCreatedMessage>>> loader() {
+        return () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return List.of(OrderCreatedMessage.builder().merchantUid("m-1").build());
+        });
+    }
+}
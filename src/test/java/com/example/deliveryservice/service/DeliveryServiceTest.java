@@ -0,0 +1,219 @@
+package com.example.deliveryservice.service;
+
+import com.example.deliveryservice.domain.Delivery;
+import com.example.deliveryservice.domain.DeliveryRepository;
+import com.example.deliveryservice.dto.DeliveryBatchResponseDTO;
+import com.example.deliveryservice.dto.DeliveryBatchResultDTO;
+import com.example.deliveryservice.dto.DeliveryCompleteRequestDTO;
+import com.example.deliveryservice.dto.DeliveryStartRequestDTO;
+import com.example.deliveryservice.event.OrderCreatedMessage;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.type.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryServiceTest {
+
+    private static final LocalDateTime DELIVERED_AT = LocalDateTime.of(2026, 1, 1, 12, 30);
+
+    @Mock
+    private StatusChangeOutbox statusChangeOutbox;
+    @Mock
+    private TransactionalOperator transactionalOperator;
+    @Mock
+    private DeliveryRepository deliveryRepository;
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private CookingOrderSnapshot cookingOrderSnapshot;
+    @Mock
+    private DeliveringOrderCache deliveringOrderCache;
+    @Mock
+    private OrderSlaWatchdog orderSlaWatchdog;
+
+    private DeliveryService deliveryService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        deliveryService = new DeliveryService(statusChangeOutbox, transactionalOperator, deliveryRepository, redissonClient,
+                cookingOrderSnapshot, deliveringOrderCache, orderSlaWatchdog, new DeliveryMetrics(new SimpleMeterRegistry()));
+        // 트랜잭션 경계는 그대로 통과
+        lenient().when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(statusChangeOutbox.append(any())).thenReturn(Mono.empty());
+        lenient().when(statusChangeOutbox.appendAll(any())).thenReturn(Mono.empty());
+    }
+
+    // 같은 version 을 읽은 두 번째 완료 요청은 조건부 UPDATE 에서 0건 → outbox 에 다시 기록하지 않는다
+    @Test
+    void secondCompleteDoesNotWriteOutboxAgain() {
+        when(deliveryRepository.findDeliveringByMerchantUid("m-1")).thenReturn(Mono.just(delivering("m-1", 1)));
+        when(deliveryRepository.completeDelivering("m-1", 1, DELIVERED_AT)).thenReturn(Mono.just(1), Mono.just(0));
+
+        StepVerifier.create(deliveryService.completeDelivery(complete("m-1")))
+                .assertNext(response -> assertThat(response.isSuccess()).isTrue())
+                .verifyComplete();
+        StepVerifier.create(deliveryService.completeDelivery(complete("m-1")))
+                .assertNext(response -> {
+                    assertThat(response.isSuccess()).isFalse();
+                    assertThat(response.getMessage()).isEqualTo("이미 완료되었거나 배달중이 아닌 주문입니다.");
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<OrderCreatedMessage> appended = ArgumentCaptor.forClass(OrderCreatedMessage.class);
+        verify(statusChangeOutbox).append(appended.capture());
+        assertThat(appended.getValue().getStatus()).isEqualTo(OrderStatus.ORDER_DELIVERED);
+        assertThat(appended.getValue().getDeliveredTime()).isEqualTo(DELIVERED_AT);
+        verify(orderSlaWatchdog).onTransition("m-1", OrderStatus.ORDER_DELIVERED);
+    }
+
+    @Test
+    void completeOfOrderNotDeliveringFailsWithoutUpdate() {
+        when(deliveryRepository.findDeliveringByMerchantUid("m-1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(deliveryService.completeDelivery(complete("m-1")))
+                .assertNext(response -> assertThat(response.isSuccess()).isFalse())
+                .verifyComplete();
+
+        verify(deliveryRepository, never()).completeDelivering(anyString(), anyInt(), any());
+        verify(statusChangeOutbox, never()).append(any());
+    }
+
+    // 주문별 결과는 요청 순서 그대로, 실패 사유는 없음/이미 배차/조리중 아님/동시 배차/요청 중복을 구분한다
+    @Test
+    @SuppressWarnings("unchecked")
+    void startDeliveriesReportsEachItemInRequestOrder() {
+        when(deliveryRepository.findAllByMerchantUidIn(anyList())).thenReturn(Flux.just(
+                withStatus("m-ok", OrderStatus.ORDER_COOKING),
+                withStatus("m-claimed", OrderStatus.ORDER_DELIVERING),
+                withStatus("m-confirmed", OrderStatus.ORDER_CONFIRMED),
+                withStatus("m-race", OrderStatus.ORDER_COOKING)));
+        when(deliveryRepository.claimCooking("m-ok", 0, 7, null, DELIVERED_AT)).thenReturn(Mono.just(1));
+        when(deliveryRepository.claimCooking("m-race", 0, 7, null, DELIVERED_AT)).thenReturn(Mono.just(0));
+
+        DeliveryBatchResponseDTO response = deliveryService.startDeliveries(List.of(
+                start("m-ok"), start("m-missing"), start("m-claimed"), start("m-ok"), start("m-confirmed"), start("m-race")))
+                .block();
+
+        assertThat(response.getSuccessCount()).isEqualTo(1);
+        assertThat(response.getFailureCount()).isEqualTo(5);
+        assertThat(response.getResults())
+                .extracting(DeliveryBatchResultDTO::getMerchantUid, DeliveryBatchResultDTO::isSuccess, DeliveryBatchResultDTO::getMessage)
+                .containsExactly(
+                        tuple("m-ok", true, "배달이 시작 되었습니다."),
+                        tuple("m-missing", false, DeliveryService.NOT_FOUND),
+                        tuple("m-claimed", false, DeliveryService.ALREADY_CLAIMED),
+                        tuple("m-ok", false, "요청에 중복된 주문입니다."),
+                        tuple("m-confirmed", false, DeliveryService.NOT_COOKING),
+                        tuple("m-race", false, DeliveryService.ALREADY_CLAIMED));
+
+        // 성공한 주문만 outbox 에 기록하고, 커밋 뒤에 조리중 사본에서 뺀다
+        ArgumentCaptor<List<OrderCreatedMessage>> appended = ArgumentCaptor.forClass(List.class);
+        verify(statusChangeOutbox).appendAll(appended.capture());
+        assertThat(appended.getValue()).extracting(OrderCreatedMessage::getMerchantUid).containsExactly("m-ok");
+        verify(cookingOrderSnapshot).remove("m-ok");
+        verify(cookingOrderSnapshot, never()).remove("m-race");
+        verify(orderSlaWatchdog).onTransition("m-ok", OrderStatus.ORDER_DELIVERING);
+    }
+
+    @Test
+    void completeDeliveriesDistinguishesFailureReasons() {
+        when(deliveryRepository.findAllByMerchantUidIn(anyList())).thenReturn(Flux.just(
+                delivering("m-ok", 1),
+                withStatus("m-delivered", OrderStatus.ORDER_DELIVERED),
+                withStatus("m-cooking", OrderStatus.ORDER_COOKING),
+                delivering("m-race", 1)));
+        when(deliveryRepository.completeDelivering("m-ok", 1, DELIVERED_AT)).thenReturn(Mono.just(1));
+        when(deliveryRepository.completeDelivering("m-race", 1, DELIVERED_AT)).thenReturn(Mono.just(0));
+
+        DeliveryBatchResponseDTO response = deliveryService.completeDeliveries(List.of(
+                complete("m-race"), complete("m-ok"), complete("m-missing"), complete("m-delivered"), complete("m-cooking")))
+                .block();
+
+        assertThat(response.getResults())
+                .extracting(DeliveryBatchResultDTO::getMerchantUid, DeliveryBatchResultDTO::isSuccess, DeliveryBatchResultDTO::getMessage)
+                .containsExactly(
+                        tuple("m-race", false, DeliveryService.ALREADY_COMPLETED),
+                        tuple("m-ok", true, "배달이 완료 되었습니다."),
+                        tuple("m-missing", false, DeliveryService.NOT_FOUND),
+                        tuple("m-delivered", false, DeliveryService.ALREADY_DELIVERED),
+                        tuple("m-cooking", false, DeliveryService.NOT_DELIVERING));
+        verify(cookingOrderSnapshot).remove("m-ok");
+        verify(orderSlaWatchdog).onTransition("m-ok", OrderStatus.ORDER_DELIVERED);
+    }
+
+    // 트랜잭션이 실패하면 아무 주문도 조리중 사본에서 빼지 않고 전부 실패로 돌려준다
+    @Test
+    void failedBatchLeavesSnapshotUntouched() {
+        when(deliveryRepository.findAllByMerchantUidIn(anyList())).thenReturn(Flux.just(withStatus("m-ok", OrderStatus.ORDER_COOKING)));
+        when(deliveryRepository.claimCooking("m-ok", 0, 7, null, DELIVERED_AT)).thenReturn(Mono.just(1));
+        when(statusChangeOutbox.appendAll(any())).thenReturn(Mono.error(new IllegalStateException("outbox down")));
+
+        DeliveryBatchResponseDTO response = deliveryService.startDeliveries(List.of(start("m-ok"), start("m-other"))).block();
+
+        assertThat(response.getSuccessCount()).isZero();
+        assertThat(response.getResults()).extracting(DeliveryBatchResultDTO::getMerchantUid).containsExactly("m-ok", "m-other");
+        verify(cookingOrderSnapshot, never()).remove(anyString());
+    }
+
+    private static Delivery withStatus(String merchantUid, OrderStatus status) {
+        return Delivery.builder()
+                .uid(1)
+                .merchantUid(merchantUid)
+                .status(status)
+                .version(0)
+                .build();
+    }
+
+    private static DeliveryStartRequestDTO start(String merchantUid) {
+        return DeliveryStartRequestDTO.builder()
+                .merchantUid(merchantUid)
+                .riderUserUid(7)
+                .deliveryAcceptTime(DELIVERED_AT)
+                .build();
+    }
+
+    static Delivery delivering(String merchantUid, int version) {
+        return Delivery.builder()
+                .uid(1)
+                .merchantUid(merchantUid)
+                .riderUserUid(7)
+                .status(OrderStatus.ORDER_DELIVERING)
+                .deliveryAcceptTime(DELIVERED_AT.minusMinutes(20))
+                .version(version)
+                .build();
+    }
+
+    private static DeliveryCompleteRequestDTO complete(String merchantUid) {
+        return DeliveryCompleteRequestDTO.builder()
+                .merchantUid(merchantUid)
+                .riderUserUid(7)
+                .deliveredTime(DELIVERED_AT)
+                .build();
+    }
+}
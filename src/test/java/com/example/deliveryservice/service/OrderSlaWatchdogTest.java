@@ -0,0 +1,128 @@
+package com.example.deliveryservice.service;
+
+import com.example.deliveryservice.domain.DeliveryRepository;
+import com.example.deliveryservice.domain.DeliverySlaCandidate;
+import com.example.deliveryservice.metrics.DeliveryMetrics;
+import com.example.deliveryservice.rabbit.SlaAlertPublisher;
+import com.example.deliveryservice.type.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.misc.CompletableFutureWrapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSlaWatchdogTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    @Mock
+    private DeliveryRepository deliveryRepository;
+    @Mock
+    private SlaAlertPublisher slaAlertPublisher;
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RLock lock;
+    @Mock
+    private RBucket<Object> cookingWatermark;
+    @Mock
+    private RBucket<Object> deliveringWatermark;
+
+    private DeliveryMetrics deliveryMetrics;
+    private OrderSlaWatchdog watchdog;
+
+    @BeforeEach
+    void setUp() {
+        deliveryMetrics = new DeliveryMetrics(new SimpleMeterRegistry());
+        watchdog = new OrderSlaWatchdog(deliveryRepository, slaAlertPublisher, redissonClient, deliveryMetrics);
+        ReflectionTestUtils.setField(watchdog, "enabled", true);
+        ReflectionTestUtils.setField(watchdog, "cookingTimeout", Duration.ofMinutes(60));
+        ReflectionTestUtils.setField(watchdog, "deliveringTimeout", Duration.ofMinutes(90));
+        ReflectionTestUtils.setField(watchdog, "tickMs", 1000L);
+        ReflectionTestUtils.setField(watchdog, "wheelSize", 512);
+        ReflectionTestUtils.setField(watchdog, "alertDedupTtl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(watchdog, "catchUpIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(watchdog, "catchUpPageSize", PAGE_SIZE);
+        watchdog.init();
+        when(redissonClient.getLock("lock:delivery:sla-catch-up")).thenReturn(lock);
+    }
+
+    // 락을 다른 파드가 잡고 있으면 DB 를 읽지 않는다
+    @Test
+    void catchUpRunsOnlyOnLockHolder() {
+        when(lock.tryLockAsync(eq(0L), eq(60_000L), any(), anyLong())).thenReturn(new CompletableFutureWrapper<>(false));
+
+        watchdog.catchUp().block();
+
+        verifyNoInteractions(deliveryRepository);
+    }
+
+    // 저장된 워터마크부터 이어서 읽고, 꽉 찬 페이지는 마지막 행, 짧은 페이지는 구간 끝을 워터마크로 남긴다
+    @Test
+    void catchUpResumesFromStoredWatermark() {
+        LocalDateTime stored = LocalDateTime.of(2026, 1, 1, 10, 0, 0, 123_456_000);
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(3);
+        when(lock.tryLockAsync(eq(0L), eq(60_000L), any(), anyLong())).thenReturn(new CompletableFutureWrapper<>(true));
+        when(redissonClient.getBucket(eq("sla:delivery:catch-up:ORDER_COOKING"), any(Codec.class))).thenReturn(cookingWatermark);
+        when(redissonClient.getBucket(eq("sla:delivery:catch-up:ORDER_DELIVERING"), any(Codec.class))).thenReturn(deliveringWatermark);
+        when(cookingWatermark.getAsync()).thenReturn(new CompletableFutureWrapper<>((Object) new OrderSlaWatchdog.Watermark(stored, 42).format()));
+        when(deliveringWatermark.getAsync()).thenReturn(new CompletableFutureWrapper<>((Object) null));
+        when(cookingWatermark.setAsync(any())).thenReturn(new CompletableFutureWrapper<>((Void) null));
+        when(deliveringWatermark.setAsync(any())).thenReturn(new CompletableFutureWrapper<>((Void) null));
+        when(deliveryRepository.findCookingSlaWindow(eq(stored), eq(42), any(), eq(PAGE_SIZE))).thenReturn(Flux.just(
+                candidate(43, OrderStatus.ORDER_COOKING, longAgo),
+                candidate(44, OrderStatus.ORDER_COOKING, longAgo.plusSeconds(1))));
+        when(deliveryRepository.findDeliveringSlaWindow(any(), eq(0), any(), eq(PAGE_SIZE))).thenReturn(Flux.empty());
+
+        watchdog.catchUp().block();
+
+        verify(cookingWatermark).setAsync(new OrderSlaWatchdog.Watermark(longAgo.plusSeconds(1), 44).format());
+        verify(deliveringWatermark).setAsync(endsWith("|" + Integer.MAX_VALUE));
+        assertThat(deliveryMetrics.registry().get("delivery.sla.timers").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void watermarkRoundTripsMicroseconds() {
+        OrderSlaWatchdog.Watermark watermark = new OrderSlaWatchdog.Watermark(LocalDateTime.of(2026, 3, 1, 9, 30, 15, 1_000), 7);
+
+        assertThat(OrderSlaWatchdog.Watermark.parse(watermark.format())).isEqualTo(watermark);
+    }
+
+    // 구간 쿼리의 GREATEST(created_at, delivery_accept_time) 와 같은 값이어야 이어 읽을 때 빠지는 행이 없다
+    @Test
+    void windowKeyMatchesQueryOrdering() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 9, 0);
+        DeliverySlaCandidate early = new DeliverySlaCandidate(1, "m-1", OrderStatus.ORDER_DELIVERING, createdAt, createdAt.minusMinutes(5));
+        DeliverySlaCandidate accepted = new DeliverySlaCandidate(2, "m-2", OrderStatus.ORDER_DELIVERING, createdAt, createdAt.plusMinutes(5));
+        DeliverySlaCandidate cooking = new DeliverySlaCandidate(3, "m-3", OrderStatus.ORDER_COOKING, createdAt, createdAt.plusMinutes(5));
+
+        assertThat(OrderSlaWatchdog.windowKey(early)).isEqualTo(createdAt);
+        assertThat(OrderSlaWatchdog.windowKey(accepted)).isEqualTo(createdAt.plusMinutes(5));
+        assertThat(OrderSlaWatchdog.windowKey(cooking)).isEqualTo(createdAt);
+    }
+
+    private static DeliverySlaCandidate candidate(int uid, OrderStatus status, LocalDateTime createdAt) {
+        return new DeliverySlaCandidate(uid, "m-" + uid, status, createdAt, null);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.deliveryservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoGridTest {
+
+    private static final double CELL_DEGREES = 0.01;
+
+    private record Sample(String key, double lat, double lng) {
+    }
+
+    @Test
+    void distanceOfOneDegreeLatitude() {
+        assertThat(GeoGrid.distanceMeters(37.0, 127.0, 38.0, 127.0)).isCloseTo(111_195, within(100.0));
+        assertThat(GeoGrid.distanceMeters(37.5, 127.0, 37.5, 127.0)).isZero();
+    }
+
+    // 격자 검색 결과가 전체를 훑은 결과와 같다 (반경 경계, 칸 경계, 정렬, limit 포함)
+    @Test
+    void nearbyMatchesBruteForce() {
+        GeoGrid<String, String> grid = new GeoGrid<>(CELL_DEGREES);
+        List<Sample> samples = randomSamples(37.45, 37.65, 126.85, 127.15, 5_000, 42);
+        samples.forEach(sample -> grid.put(sample.key(), sample.lat(), sample.lng(), sample.key()));
+
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            double lat = 37.45 + random.nextDouble() * 0.2;
+            double lng = 126.85 + random.nextDouble() * 0.3;
+            double radius = 200 + random.nextDouble() * 5_000;
+
+            assertThat(values(grid.nearby(lat, lng, radius, Integer.MAX_VALUE)))
+                    .containsExactlyElementsOf(bruteForce(samples, lat, lng, radius, Integer.MAX_VALUE));
+            assertThat(values(grid.nearby(lat, lng, radius, 10)))
+                    .containsExactlyElementsOf(bruteForce(samples, lat, lng, radius, 10));
+        }
+    }
+
+    // 경도 1도가 짧은 고위도, 음수 좌표(칸 번호 내림)에서도 빠뜨리지 않는다
+    @Test
+    void nearbyCoversHighLatitudeAndNegativeCoordinates() {
+        for (double[] area : new double[][]{{69.5, 70.5, 18.5, 20.5}, {-0.3, 0.3, -0.3, 0.3}}) {
+            GeoGrid<String, String> grid = new GeoGrid<>(CELL_DEGREES);
+            List<Sample> samples = randomSamples(area[0], area[1], area[2], area[3], 3_000, 11);
+            samples.forEach(sample -> grid.put(sample.key(), sample.lat(), sample.lng(), sample.key()));
+
+            double lat = (area[0] + area[1]) / 2;
+            double lng = (area[2] + area[3]) / 2;
+            assertThat(values(grid.nearby(lat, lng, 10_000, Integer.MAX_VALUE)))
+                    .isNotEmpty()
+                    .containsExactlyElementsOf(bruteForce(samples, lat, lng, 10_000, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void putMovesExistingKey() {
+        GeoGrid<String, String> grid = new GeoGrid<>(CELL_DEGREES);
+        grid.put("m-1", 37.50, 127.00, "old");
+        grid.put("m-1", 37.60, 127.10, "new");
+
+        assertThat(grid.size()).isOne();
+        assertThat(grid.nearby(37.50, 127.00, 500, 10)).isEmpty();
+        assertThat(values(grid.nearby(37.60, 127.10, 500, 10))).containsExactly("new");
+    }
+
+    @Test
+    void removeAndClear() {
+        GeoGrid<String, String> grid = new GeoGrid<>(CELL_DEGREES);
+        grid.put("m-1", 37.50, 127.00, "m-1");
+        grid.put("m-2", 37.5001, 127.0001, "m-2");
+
+        grid.remove("m-1");
+        grid.remove("missing");
+        assertThat(values(grid.nearby(37.50, 127.00, 500, 10))).containsExactly("m-2");
+
+        grid.clear();
+        assertThat(grid.size()).isZero();
+        assertThat(grid.nearby(37.50, 127.00, 500, 10)).isEmpty();
+    }
+
+    private static List<Sample> randomSamples(double minLat, double maxLat, double minLng, double maxLng, int count, long seed) {
+        Random random = new Random(seed);
+        List<Sample> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            samples.add(new Sample("m-" + i,
+                    minLat + random.nextDouble() * (maxLat - minLat),
+                    minLng + random.nextDouble() * (maxLng - minLng)));
+        }
+        return samples;
+    }
+
+    private static List<String> bruteForce(List<Sample> samples, double lat, double lng, double radius, int limit) {
+        return samples.stream()
+                .filter(sample -> GeoGrid.distanceMeters(lat, lng, sample.lat(), sample.lng()) <= radius)
+                .sorted(Comparator.comparingDouble(sample -> GeoGrid.distanceMeters(lat, lng, sample.lat(), sample.lng())))
+                .limit(limit)
+                .map(Sample::key)
+                .toList();
+    }
+
+    private static List<String> values(List<GeoGrid.Hit<String>> hits) {
+        return hits.stream().map(GeoGrid.Hit::value).toList();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.deliveryservice.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 100;
+    private static final int SIZE = 8; // 0단계 800ms, 1단계 6.4s, 2단계 51.2s
+
+    private HierarchicalTimingWheel<String, String> wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new HierarchicalTimingWheel<>(TICK, SIZE, 0);
+    }
+
+    @Test
+    void expiresAtDeadline() {
+        wheel.schedule("m-1", "v-1", 300);
+
+        assertThat(wheel.advance(299)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("v-1");
+        assertThat(wheel.size()).isZero();
+    }
+
+    // 마감은 tick 단위로 내림 - 최대 한 tick 일찍 만료되지만 그보다 이르지는 않다
+    @Test
+    void expiresAtMostOneTickEarly() {
+        wheel.schedule("m-1", "v-1", 350);
+
+        assertThat(wheel.advance(299)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("v-1");
+    }
+
+    @Test
+    void pastDeadlineExpiresOnNextAdvance() {
+        wheel.advance(1_000);
+        wheel.schedule("m-1", "v-1", 500);
+
+        assertThat(wheel.advance(1_000)).containsExactly("v-1");
+    }
+
+    // 0단계 범위를 넘는 마감은 상위 단계에 있다가 내려와서 제때 만료된다
+    @Test
+    void farDeadlinesCascadeThroughLevels() {
+        wheel.schedule("level-1", "v-1", 5_000);
+        wheel.schedule("level-2", "v-2", 30_000);
+
+        assertThat(wheel.advance(4_999)).isEmpty();
+        assertThat(wheel.advance(5_000)).containsExactly("v-1");
+        assertThat(wheel.advance(29_999)).isEmpty();
+        assertThat(wheel.advance(30_000)).containsExactly("v-2");
+    }
+
+    // 한 번에 여러 tick 을 건너뛰어도 그 사이 마감이 모두 만료된다
+    @Test
+    void advanceAcrossManyTicksCollectsEverything() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            wheel.schedule("m-" + i, "v-" + i, i * 250L);
+            expected.add("v-" + i);
+        }
+
+        assertThat(wheel.advance(50 * 250L)).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void scheduleReplacesExistingTimer() {
+        wheel.schedule("m-1", "cooking", 300);
+        wheel.schedule("m-1", "delivering", 2_000);
+
+        assertThat(wheel.size()).isOne();
+        assertThat(wheel.advance(1_999)).isEmpty();
+        assertThat(wheel.advance(2_000)).containsExactly("delivering");
+    }
+
+    @Test
+    void scheduleIfAbsentKeepsExistingTimer() {
+        wheel.schedule("m-1", "newer", 300);
+
+        assertThat(wheel.scheduleIfAbsent("m-1", "older", 100)).isFalse();
+        assertThat(wheel.scheduleIfAbsent("m-2", "other", 400)).isTrue();
+        assertThat(wheel.advance(400)).containsExactlyInAnyOrder("newer", "other");
+    }
+
+    @Test
+    void cancelRemovesTimer() {
+        wheel.schedule("m-1", "v-1", 300);
+        wheel.schedule("m-2", "v-2", 5_000);
+        wheel.advance(1_000);
+        wheel.schedule("m-3", "v-3", 500); // overdue 목록에 있는 타이머
+
+        assertThat(wheel.cancel("m-2")).isTrue();
+        assertThat(wheel.cancel("m-3")).isTrue();
+        assertThat(wheel.cancel("missing")).isFalse();
+        assertThat(wheel.advance(10_000)).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    // 만료되어 돌려준 키는 다시 등록할 수 있다 (재시도 경로)
+    @Test
+    void expiredKeyCanBeRescheduled() {
+        wheel.schedule("m-1", "v-1", 300);
+        wheel.advance(300);
+
+        assertThat(wheel.scheduleIfAbsent("m-1", "retry", 1_300)).isTrue();
+        assertThat(wheel.advance(1_300)).containsExactly("retry");
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<>(0, SIZE, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<>(TICK, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.deliveryservice.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadRoutingTest {
+
+    private static final Mono<ReadRouting.Target> CURRENT = Mono.deferContextual(context -> Mono.just(ReadRouting.target(context)));
+
+    @Test
+    void unmarkedCallIsPrimary() {
+        assertThat(CURRENT.block()).isEqualTo(ReadRouting.Target.PRIMARY);
+    }
+
+    @Test
+    void preferReplicaMarksReplica() {
+        assertThat(ReadRouting.preferReplica(CURRENT).block()).isEqualTo(ReadRouting.Target.REPLICA);
+        assertThat(ReadRouting.preferReplica(Flux.from(CURRENT)).blockLast()).isEqualTo(ReadRouting.Target.REPLICA);
+    }
+
+    // 바깥에서 정한 primary 를 안쪽 preferReplica 가 덮어쓰지 않는다
+    @Test
+    void outerPrimaryWinsOverInnerPreferReplica() {
+        assertThat(ReadRouting.primary(ReadRouting.preferReplica(CURRENT)).block()).isEqualTo(ReadRouting.Target.PRIMARY);
+        assertThat(ReadRouting.primary(ReadRouting.preferReplica(Flux.from(CURRENT))).blockLast()).isEqualTo(ReadRouting.Target.PRIMARY);
+    }
+
+    // 조회 메서드 안에서 primary 로 감싼 호출은 read-your-writes 용이므로 primary
+    @Test
+    void innerPrimaryWinsOverOuterPreferReplica() {
+        assertThat(ReadRouting.preferReplica(ReadRouting.primary(CURRENT)).block()).isEqualTo(ReadRouting.Target.PRIMARY);
+    }
+}